@@ -0,0 +1,53 @@
+package ec.com.ecommerce.gateway;
+
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic route tables shaped like the generated ones: one service route per row,
+ * plus a few templated routes every gateway carries
+ */
+public final class BenchmarkRoutes {
+
+    private BenchmarkRoutes() {
+    }
+
+    public static List<RouteEntity> routes(int count) {
+        List<RouteEntity> routes = new ArrayList<>(count);
+        routes.add(route("swagger-docs-template", "no://op", "Path=/docs/{service}/**", "StripPrefix=2,DiscoveredService=service", 10));
+        routes.add(route("swagger-direct-template", "no://op", "Path=/{service}/swagger-ui/**", "StripPrefix=1,DiscoveredService=service", 12));
+        for (int i = routes.size(); i < count; i++) {
+            String service = service(i);
+            routes.add(route(service, "lb://" + service,
+                    "Path=/api/" + service + "/v1/**,Method=GET",
+                    "StripPrefix=2,RewritePath=/v1/(?<segment>.*),/${segment},AddRequestHeader=X-Gateway,route-" + i,
+                    100 + i));
+        }
+        return routes;
+    }
+
+    /**
+     * A request path served by the route at the given position of {@link #routes(int)}
+     */
+    public static String requestPath(int position) {
+        return "/api/" + service(position) + "/v1/orders/42";
+    }
+
+    public static String service(int position) {
+        return "service-" + position;
+    }
+
+    private static RouteEntity route(String id, String uri, String predicates, String filters, int order) {
+        return RouteEntity.builder()
+                .id(id)
+                .uri(uri)
+                .predicates(predicates)
+                .filters(filters)
+                .orderNum(order)
+                .enabled(true)
+                .serviceName(id)
+                .build();
+    }
+}
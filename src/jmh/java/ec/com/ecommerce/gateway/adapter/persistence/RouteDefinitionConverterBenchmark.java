@@ -0,0 +1,90 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import ec.com.ecommerce.gateway.BenchmarkRoutes;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row to route definition conversion: legacy string parsing, a cold conversion of a whole table
+ * and the content-hash cache hit path taken on every unchanged reload, with the production cache configuration
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteDefinitionConverterBenchmark {
+
+    private static final String PREDICATES = "Path=/api/orders/v1/**,Method=GET";
+    private static final String FILTERS = "StripPrefix=2,RewritePath=/v1/(?<segment>.*),/${segment},AddRequestHeader=X-Gateway,orders";
+
+    @Param({"100", "1000", "10000", "50000"})
+    int routeCount;
+
+    private List<RouteEntity> routes;
+    private RouteDefinitionConverter warmConverter;
+
+    @Setup
+    public void setUp() {
+        routes = BenchmarkRoutes.routes(routeCount);
+        // Configured and sized as the snapshot reload does it in production
+        warmConverter = new RouteDefinitionConverter();
+        warmConverter.reserve(routeCount);
+        routes.forEach(warmConverter::toRouteDefinition);
+    }
+
+    @Benchmark
+    public List<PredicateDefinition> parsePredicates() {
+        return warmConverter.parsePredicates(PREDICATES);
+    }
+
+    @Benchmark
+    public List<FilterDefinition> parseFilters() {
+        return warmConverter.parseFilters(FILTERS);
+    }
+
+    /**
+     * Convert the whole table with an empty cache, as on the first load of a node
+     */
+    @Benchmark
+    public void convertTableCold(Blackhole blackhole) {
+        RouteDefinitionConverter converter = new RouteDefinitionConverter();
+        converter.reserve(routeCount);
+        for (RouteEntity route : routes) {
+            blackhole.consume(converter.toRouteDefinition(route));
+        }
+    }
+
+    /**
+     * Convert the whole table again with every row cached, as on a reload that finds no changes
+     */
+    @Benchmark
+    public void convertTableCached(Blackhole blackhole) {
+        for (RouteEntity route : routes) {
+            blackhole.consume(warmConverter.toRouteDefinition(route));
+        }
+    }
+
+    @Benchmark
+    public RouteDefinition convertSingleRouteCold() {
+        return new RouteDefinitionConverter().toRouteDefinition(routes.get(routes.size() - 1));
+    }
+}
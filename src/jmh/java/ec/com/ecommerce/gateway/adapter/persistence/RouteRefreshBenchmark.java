@@ -0,0 +1,117 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import ec.com.ecommerce.gateway.BenchmarkRoutes;
+import ec.com.ecommerce.gateway.config.BlockingSchedulerConfiguration;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.scheduler.Scheduler;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full route refresh through {@link DatabaseRouteDefinitionRepository}, with the JPA repository replaced
+ * by an in-memory table so only conversion, diffing and the snapshot swap are measured. The converter and the
+ * virtual-thread blocking scheduler are configured as in production, so tables larger than the converter's default
+ * cache size pay for any cache misses and every reload pays for the hop to the scheduler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteRefreshBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    int routeCount;
+
+    private List<RouteEntity> routes;
+    private List<RouteEntity> changedRoutes;
+    private Scheduler blockingScheduler;
+    private DatabaseRouteDefinitionRepository repository;
+    private boolean changed;
+    private volatile List<RouteEntity> table;
+
+    @Setup
+    public void setUp() {
+        routes = BenchmarkRoutes.routes(routeCount);
+        changedRoutes = new ArrayList<>(routes);
+        RouteEntity last = routes.get(routes.size() - 1);
+        changedRoutes.set(routes.size() - 1, RouteEntity.builder()
+                .id(last.getId())
+                .uri(last.getUri())
+                .predicates(last.getPredicates())
+                .filters(last.getFilters())
+                .orderNum(last.getOrderNum() + 1)
+                .enabled(true)
+                .build());
+
+        table = routes;
+        // The default limit, the JDBC pool size
+        blockingScheduler = new BlockingSchedulerConfiguration().virtualThreadBlockingScheduler(10);
+        repository = new DatabaseRouteDefinitionRepository(inMemory(), new RouteDefinitionConverter(), Duration.ofHours(1),
+                blockingScheduler);
+        repository.reload().block();
+    }
+
+    @TearDown
+    public void tearDown() {
+        blockingScheduler.dispose();
+    }
+
+    /**
+     * Refresh of an unchanged table: every row is a cache hit and the snapshot is kept
+     */
+    @Benchmark
+    public RouteDefinitionSnapshot refreshUnchanged() {
+        repository.invalidate();
+        return repository.reload().block();
+    }
+
+    /**
+     * Refresh where one route changed since the previous refresh, so a new snapshot is built
+     */
+    @Benchmark
+    public RouteDefinitionSnapshot refreshOneChanged() {
+        changed = !changed;
+        table = changed ? changedRoutes : routes;
+        repository.invalidate();
+        return repository.reload().block();
+    }
+
+    /**
+     * First load of a node: empty snapshot and empty conversion cache
+     */
+    @Benchmark
+    public RouteDefinitionSnapshot initialLoad() {
+        table = routes;
+        return new DatabaseRouteDefinitionRepository(inMemory(), new RouteDefinitionConverter(), Duration.ofHours(1),
+                blockingScheduler)
+                .reload()
+                .block();
+    }
+
+    private RouteRepository inMemory() {
+        return (RouteRepository) Proxy.newProxyInstance(RouteRepository.class.getClassLoader(), new Class<?>[]{RouteRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEnabledTrue" -> table;
+                    case "toString" -> "in-memory routes";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
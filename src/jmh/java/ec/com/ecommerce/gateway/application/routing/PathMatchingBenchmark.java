@@ -0,0 +1,121 @@
+package ec.com.ecommerce.gateway.application.routing;
+
+import ec.com.ecommerce.gateway.BenchmarkRoutes;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request path matching against the route table: the linear scan over every route's Path pattern
+ * that the stock handler mapping performs, versus narrowing with {@link PathRouteIndex} first.
+ * Request paths are spread uniformly over the table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathMatchingBenchmark {
+
+    private static final int REQUEST_PATHS = 1024;
+
+    @Param({"100", "1000", "10000", "50000"})
+    int routeCount;
+
+    private List<PathPattern> patterns;
+    private PathRouteIndex<PathPattern> index;
+    private PathContainer[] requestPaths;
+    private List<String>[] requestSegments;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        PathPatternParser parser = new PathPatternParser();
+        List<RouteEntity> routes = BenchmarkRoutes.routes(routeCount);
+        patterns = new ArrayList<>(routes.size());
+        for (RouteEntity route : routes) {
+            patterns.add(parser.parse(pathPattern(route)));
+        }
+        index = PathRouteIndex.build(patterns, pattern -> List.of(pattern.getPatternString()));
+
+        SplittableRandom random = new SplittableRandom(42);
+        requestPaths = new PathContainer[REQUEST_PATHS];
+        requestSegments = new List[REQUEST_PATHS];
+        for (int i = 0; i < REQUEST_PATHS; i++) {
+            String path = BenchmarkRoutes.requestPath(2 + random.nextInt(routeCount - 2));
+            requestPaths[i] = PathContainer.parsePath(path);
+            requestSegments[i] = segments(path);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetRequests() {
+        next = 0;
+    }
+
+    @Benchmark
+    public PathPattern linearScan() {
+        PathContainer path = requestPaths[next++ & (REQUEST_PATHS - 1)];
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public PathPattern indexed() {
+        int request = next++ & (REQUEST_PATHS - 1);
+        PathContainer path = requestPaths[request];
+        for (PathPattern pattern : index.candidates(requestSegments[request])) {
+            if (pattern.matches(path)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Index rebuild cost paid on every route refresh
+     */
+    @Benchmark
+    public PathRouteIndex<PathPattern> buildIndex() {
+        return PathRouteIndex.build(patterns, pattern -> List.of(pattern.getPatternString()));
+    }
+
+    private static String pathPattern(RouteEntity route) {
+        String predicate = route.getPredicates().split(",")[0];
+        return predicate.substring("Path=".length());
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,163 @@
+package ec.com.ecommerce.gateway.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ec.com.ecommerce.GatewayServerApplication;
+import ec.com.ecommerce.gateway.application.service.RouteService;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * End-to-end gateway load test without any external service.
+ * <p>
+ * The gateway is booted with an in-memory H2 database as route store, local leader election, the refresh bus,
+ * discovery watcher and Kafka listeners switched off, and Spring Cloud's simple discovery client pointing the
+ * {@code lb://stub-N} services at local stub servers. Scenarios:
+ * <ul>
+ *     <li>{@code direct}: the stubs without the gateway, the baseline for latency and allocation</li>
+ *     <li>{@code gateway}: requests spread over all routes</li>
+ *     <li>{@code gateway-refresh-storm}: the same load while {@link RouteService#refreshRoutes()} runs back to back</li>
+ * </ul>
+ */
+@Slf4j
+public final class GatewayLoadTest {
+
+    private GatewayLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        log.info("Starting load test with {}", settings);
+
+        try (StubUpstreams stubs = new StubUpstreams(settings.upstreams(), settings.responseBytes());
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(GatewayServerApplication.class)
+                     .run(gatewayArguments(stubs))) {
+            int gatewayPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+            RouteService routeService = context.getBean(RouteService.class);
+            routeService.saveRoutes(routes(settings));
+
+            List<ScenarioResult> results = new ArrayList<>();
+            IntFunction<String> gatewayPaths = request -> "/load/" + (request % settings.routes()) + "/resource";
+
+            try (LoadGenerator direct = new LoadGenerator(stubs.ports().get(StubUpstreams.serviceId(0)), settings.concurrency());
+                 LoadGenerator gateway = new LoadGenerator(gatewayPort, settings.concurrency())) {
+                gateway.awaitOk(gatewayPaths.apply(settings.routes() - 1), Duration.ofSeconds(60));
+
+                results.add(measure(direct, "direct", settings, request -> "/resource"));
+                results.add(measure(gateway, "gateway", settings, gatewayPaths));
+
+                AtomicLong refreshes = new AtomicLong();
+                AtomicBoolean storming = new AtomicBoolean(true);
+                Thread storm = Thread.ofVirtual().name("refresh-storm").start(() -> {
+                    while (storming.get()) {
+                        routeService.refreshRoutes();
+                        refreshes.incrementAndGet();
+                        sleep(settings.refreshInterval());
+                    }
+                });
+                try {
+                    results.add(measure(gateway, "gateway-refresh-storm", settings, gatewayPaths));
+                } finally {
+                    storming.set(false);
+                    storm.join();
+                }
+                log.info("Triggered {} full route refreshes during the refresh storm", refreshes.get());
+            }
+
+            report(settings, results);
+        }
+    }
+
+    private static ScenarioResult measure(LoadGenerator generator, String scenario, LoadTestSettings settings,
+                                          IntFunction<String> paths) {
+        log.info("Warming up {} for {}", scenario, settings.warmup());
+        generator.run(scenario, settings.warmup(), paths);
+        log.info("Measuring {} for {}", scenario, settings.duration());
+        return generator.run(scenario, settings.duration(), paths);
+    }
+
+    private static String[] gatewayArguments(StubUpstreams stubs) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.cloud.config.enabled", "false");
+        properties.put("eureka.client.enabled", "false");
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:gateway-load-test;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS JSON");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.kafka.listener.auto-startup", "false");
+        properties.put("gateway.kafka.lag-monitor.enabled", "false");
+        properties.put("gateway.leader-election.mode", "local");
+        properties.put("gateway.routes.store", "jpa");
+        properties.put("gateway.routes.refresh-bus.enabled", "false");
+        properties.put("gateway.discovery.watch.enabled", "false");
+        properties.put("gateway.routes.migration.structured-definitions", "false");
+        properties.put("gateway.routes.snapshot.file.enabled", "false");
+        properties.put("logging.level.ec.com.ecommerce", "WARN");
+        stubs.ports().forEach((serviceId, port) -> properties.put(
+                "spring.cloud.discovery.client.simple.instances." + serviceId + "[0].uri", "http://127.0.0.1:" + port));
+
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+
+    private static List<RouteEntity> routes(LoadTestSettings settings) {
+        List<RouteEntity> routes = new ArrayList<>(settings.routes());
+        for (int i = 0; i < settings.routes(); i++) {
+            routes.add(RouteEntity.builder()
+                    .id("load-" + i)
+                    .uri("lb://" + StubUpstreams.serviceId(i % settings.upstreams()))
+                    .predicates("Path=/load/" + i + "/**")
+                    .filters("StripPrefix=2")
+                    .orderNum(1000 + i)
+                    .enabled(true)
+                    .serviceName(StubUpstreams.serviceId(i % settings.upstreams()))
+                    .build());
+        }
+        return routes;
+    }
+
+    private static void report(LoadTestSettings settings, List<ScenarioResult> results) throws Exception {
+        ScenarioResult baseline = results.get(0);
+        System.out.printf("%n%-24s %10s %8s %10s %9s %9s %9s %9s %12s%n",
+                "scenario", "requests", "errors", "rps", "p50 ms", "p99 ms", "p999 ms", "max ms", "gw B/req");
+        for (ScenarioResult result : results) {
+            System.out.printf("%-24s %10d %8d %10.0f %9.3f %9.3f %9.3f %9.3f %12d%n",
+                    result.scenario(), result.requests(), result.errors(), result.requestsPerSecond(),
+                    result.p50Millis(), result.p99Millis(), result.p999Millis(), result.maxMillis(),
+                    result.allocatedBytesPerRequestOver(baseline));
+        }
+
+        Files.createDirectories(settings.report().toAbsolutePath().getParent());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("results", results);
+        new ObjectMapper().findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .writeValue(settings.report().toFile(), report);
+        System.out.printf("%nResults written to %s%n", settings.report().toAbsolutePath());
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ec.com.ecommerce.gateway.loadtest;
+
+import com.sun.management.ThreadMXBean;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop HTTP load: a fixed number of requests is kept in flight, each one issued as soon as the
+ * previous one completed. Latencies go into an HDR histogram, allocation is taken from the JVM-wide
+ * per-thread allocation counters, so it covers the gateway as well as this client and the stubs.
+ */
+final class LoadGenerator implements AutoCloseable {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final ConnectionProvider connections;
+    private final HttpClient client;
+    private final int concurrency;
+
+    LoadGenerator(int port, int concurrency) {
+        this.connections = ConnectionProvider.builder("load-test")
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = HttpClient.create(connections)
+                .baseUrl("http://127.0.0.1:" + port)
+                .responseTimeout(Duration.ofSeconds(30));
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Run requests for the given duration, spreading them over the paths produced for consecutive request numbers
+     */
+    ScenarioResult run(String scenario, Duration duration, IntFunction<String> paths) {
+        Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+        AtomicLong requestNumber = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        Flux.range(0, concurrency)
+                .flatMap(worker -> Mono.defer(() -> request(paths.apply((int) requestNumber.getAndIncrement()), recorder, errors))
+                        .repeat(() -> System.nanoTime() < deadline), concurrency)
+                .blockLast();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Histogram latencies = recorder.getIntervalHistogram();
+        return ScenarioResult.of(scenario, latencies, errors.get(), elapsed, allocated);
+    }
+
+    /**
+     * Poll the path until it answers 200, e.g. until freshly stored routes are live
+     */
+    void awaitOk(String path, Duration timeout) {
+        Integer status = client.get()
+                .uri(path)
+                .response((response, body) -> body.then(Mono.just(response.status().code())))
+                .next()
+                .filter(code -> code == 200)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(200)))
+                .timeout(timeout)
+                .onErrorResume(e -> Mono.empty())
+                .block();
+        if (status == null) {
+            throw new IllegalStateException("No 200 response from " + path + " within " + timeout);
+        }
+    }
+
+    private Mono<Integer> request(String path, Recorder recorder, AtomicLong errors) {
+        long start = System.nanoTime();
+        return client.get()
+                .uri(path)
+                .response((response, body) -> body.then(Mono.just(response.status().code())))
+                .next()
+                .doOnNext(status -> {
+                    recorder.recordValue(Math.min(System.nanoTime() - start, MAX_LATENCY_NANOS));
+                    if (status != 200) {
+                        errors.incrementAndGet();
+                    }
+                })
+                .onErrorResume(e -> {
+                    errors.incrementAndGet();
+                    return Mono.empty();
+                });
+    }
+
+    private static long allocatedBytes() {
+        return ((ThreadMXBean) ManagementFactory.getThreadMXBean()).getTotalThreadAllocatedBytes();
+    }
+
+    @Override
+    public void close() {
+        connections.dispose();
+    }
+}
@@ -0,0 +1,38 @@
+package ec.com.ecommerce.gateway.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Load test knobs, read from {@code loadtest.*} system properties
+ *
+ * @param concurrency     requests in flight at any time (closed loop)
+ * @param warmup          load applied before each scenario is measured
+ * @param duration        measured time per scenario
+ * @param routes          number of routes in the route store
+ * @param upstreams       number of stub upstream services the routes are spread over
+ * @param responseBytes   body size returned by the stub upstreams
+ * @param refreshInterval pause between full route refreshes in the refresh storm scenario
+ * @param report          file the JSON results are written to
+ */
+record LoadTestSettings(int concurrency, Duration warmup, Duration duration, int routes, int upstreams,
+                        int responseBytes, Duration refreshInterval, Path report) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.concurrency", 64),
+                duration("loadtest.warmup", "10s"),
+                duration("loadtest.duration", "30s"),
+                Integer.getInteger("loadtest.routes", 1000),
+                Integer.getInteger("loadtest.upstreams", 4),
+                Integer.getInteger("loadtest.response-bytes", 512),
+                duration("loadtest.refresh-interval", "100ms"),
+                Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/results.json")));
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
@@ -0,0 +1,34 @@
+package ec.com.ecommerce.gateway.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one measured scenario; latencies in milliseconds
+ */
+record ScenarioResult(String scenario, long requests, long errors, double requestsPerSecond, double p50Millis,
+                      double p99Millis, double p999Millis, double maxMillis, long allocatedBytesPerRequest) {
+
+    static ScenarioResult of(String scenario, Histogram latencies, long errors, long elapsedNanos, long allocatedBytes) {
+        long requests = latencies.getTotalCount();
+        return new ScenarioResult(scenario, requests, errors,
+                requests / (elapsedNanos / 1e9),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()),
+                requests > 0 ? allocatedBytes / requests : 0);
+    }
+
+    /**
+     * Gateway share of the per-request allocation, given a scenario measured without the gateway in the path
+     */
+    long allocatedBytesPerRequestOver(ScenarioResult baseline) {
+        return Math.max(allocatedBytesPerRequest - baseline.allocatedBytesPerRequest, 0);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,63 @@
+package ec.com.ecommerce.gateway.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local upstream services answering every request with a fixed body, one server per service id
+ */
+final class StubUpstreams implements AutoCloseable {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final Map<String, Integer> ports = new LinkedHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    StubUpstreams(int count, int responseBytes) throws IOException {
+        byte[] body = new byte[responseBytes];
+        Arrays.fill(body, (byte) 'x');
+        for (int i = 0; i < count; i++) {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+            server.createContext("/", exchange -> {
+                try (InputStream request = exchange.getRequestBody(); OutputStream response = exchange.getResponseBody()) {
+                    request.transferTo(OutputStream.nullOutputStream());
+                    exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                    exchange.sendResponseHeaders(200, body.length);
+                    response.write(body);
+                }
+            });
+            server.setExecutor(executor);
+            server.start();
+            servers.add(server);
+            ports.put(serviceId(i), server.getAddress().getPort());
+        }
+    }
+
+    static String serviceId(int index) {
+        return "stub-" + index;
+    }
+
+    /**
+     * Port of every stub, keyed by service id
+     */
+    Map<String, Integer> ports() {
+        return ports;
+    }
+
+    @Override
+    public void close() {
+        servers.forEach(server -> server.stop(0));
+        executor.shutdownNow();
+    }
+}
@@ -4,19 +4,22 @@ import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 @RestController
 @RequiredArgsConstructor
 public class GatewayController {
     private final RouteRepository repository;
+    private final Scheduler blockingScheduler;
 
     @GetMapping("/routes/count")
-    public Long getRoutesCount() {
-        return repository.count();
+    public Mono<Long> getRoutesCount() {
+        return Mono.fromCallable(repository::count).subscribeOn(blockingScheduler);
     }
 
     @GetMapping("/routes")
-    public Object getAllRoutes() {
-        return repository.findAll();
+    public Mono<Object> getAllRoutes() {
+        return Mono.<Object>fromCallable(repository::findAll).subscribeOn(blockingScheduler);
     }
 }
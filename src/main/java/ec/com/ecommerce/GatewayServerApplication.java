@@ -2,10 +2,12 @@ package ec.com.ecommerce;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
 @EnableDiscoveryClient
-@SpringBootApplication
+// The R2DBC route store builds its own pool; an auto-configured ConnectionFactory would disable the JPA DataSource
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class GatewayServerApplication {
     public static void main(String[] args) {
         SpringApplication.run(GatewayServerApplication.class, args);
@@ -1,10 +1,32 @@
 package ec.com.ecommerce.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DescribeTopicsOptions;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ContainerCustomizer;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+@Slf4j
 @Configuration
 public class KafkaConfig {
     @Bean
@@ -14,4 +36,100 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
+
+    /**
+     * Compacted route log keyed by route id: the latest record of every route is kept, deleted routes are
+     * tombstones, which stay long enough for nodes that were down to see them
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.routes.store", havingValue = "kafka")
+    public NewTopic gatewayRoutesTopic(
+            @Value("${gateway.routes.kafka.topic:gateway-routes}") String topic,
+            @Value("${gateway.routes.kafka.partitions:10}") int partitions,
+            @Value("${gateway.routes.kafka.replicas:1}") int replicas,
+            @Value("${gateway.routes.kafka.tombstone-retention:7d}") Duration tombstoneRetention) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .config(TopicConfig.DELETE_RETENTION_MS_CONFIG, String.valueOf(tombstoneRetention.toMillis()))
+                .build();
+    }
+
+    /**
+     * Producer defaults for route events: batched and compressed, and idempotent so a retried send is not
+     * written twice. Anything set under spring.kafka.producer takes precedence.
+     */
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer routeEventProducerCustomizer(
+            @Value("${gateway.route-events.producer.linger:20ms}") Duration linger,
+            @Value("${gateway.route-events.producer.batch-size:64KB}") DataSize batchSize,
+            @Value("${gateway.route-events.producer.compression:lz4}") String compression) {
+        return producerFactory -> {
+            Map<String, Object> defaults = new HashMap<>();
+            defaults.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            defaults.put(ProducerConfig.ACKS_CONFIG, "all");
+            defaults.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+            defaults.put(ProducerConfig.LINGER_MS_CONFIG, (int) linger.toMillis());
+            defaults.put(ProducerConfig.BATCH_SIZE_CONFIG, (int) batchSize.toBytes());
+            defaults.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+            defaults.keySet().removeAll(producerFactory.getConfigurationProperties().keySet());
+            producerFactory.updateConfigs(defaults);
+        };
+    }
+
+    /**
+     * Run one consumer per partition of the listened topics, up to max-concurrency. Declared topics are counted
+     * without asking the broker; other topics are described with a short timeout, so an unreachable broker does
+     * not hold up the creation of every container. Without a partition count the container keeps its configured
+     * concurrency.
+     */
+    @Bean
+    public ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>> partitionConcurrencyCustomizer(
+            KafkaAdmin kafkaAdmin,
+            List<NewTopic> declaredTopics,
+            @Value("${gateway.kafka.listener.max-concurrency:10}") int maxConcurrency,
+            @Value("${gateway.kafka.listener.describe-timeout:2s}") Duration describeTimeout) {
+        Map<String, Integer> declaredPartitions = declaredTopics.stream()
+                .filter(topic -> topic.numPartitions() > 0)
+                .collect(Collectors.toMap(NewTopic::name, NewTopic::numPartitions, (first, second) -> second));
+        return container -> {
+            String[] topics = container.getContainerProperties().getTopics();
+            if (topics == null || topics.length == 0) {
+                return;
+            }
+            List<String> listened = List.of(topics);
+            List<String> undeclared = listened.stream().filter(topic -> !declaredPartitions.containsKey(topic)).toList();
+            int partitions = listened.stream().filter(declaredPartitions::containsKey).mapToInt(declaredPartitions::get).sum()
+                    + describePartitions(kafkaAdmin, undeclared, describeTimeout);
+            if (partitions > 0) {
+                container.setConcurrency(Math.min(partitions, maxConcurrency));
+                log.info("Listener {} on {} runs {} consumers for {} partitions", container.getListenerId(),
+                        listened, Math.min(partitions, maxConcurrency), partitions);
+            }
+        };
+    }
+
+    private static int describePartitions(KafkaAdmin kafkaAdmin, List<String> topics, Duration timeout) {
+        if (topics.isEmpty()) {
+            return 0;
+        }
+        AdminClient adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        try {
+            return adminClient.describeTopics(topics, new DescribeTopicsOptions().timeoutMs((int) timeout.toMillis()))
+                    .allTopicNames()
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .values().stream()
+                    .mapToInt(description -> description.partitions().size())
+                    .sum();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Could not describe topics {} within {}: {}", topics, timeout, e.getMessage());
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            adminClient.close(Duration.ZERO);
+        }
+    }
 }
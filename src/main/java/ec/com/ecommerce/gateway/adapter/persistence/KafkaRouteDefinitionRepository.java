@@ -0,0 +1,220 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.kafka.core.KafkaTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Route definition repository materialized from a log-compacted Kafka topic keyed by route id, where a deleted
+ * route is a tombstone.
+ * <p>
+ * Every node reads the whole topic into an in-memory route table on startup and tails it afterwards (see
+ * {@code RouteLogTailer}), so reloads rebuild the snapshot from that table and never query the database.
+ * Route changes written through this repository go to the topic, which is how they reach the other nodes; the
+ * route table only takes them over once they are read back from the topic. Until the topic has been read up to its end, reloads fail and the current snapshot keeps being served.
+ */
+@Slf4j
+public class KafkaRouteDefinitionRepository extends SnapshotRouteDefinitionRepository {
+
+    private static final Comparator<RouteEntity> ROUTE_ORDER = Comparator
+            .comparing((RouteEntity route) -> route.getOrderNum() != null ? route.getOrderNum() : 0)
+            .thenComparing(RouteEntity::getId);
+
+    private static final String TOMBSTONE = "";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final RouteRepository routeRepository;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+    private final Scheduler blockingScheduler;
+    private final Map<String, RouteEntity> routes = new ConcurrentHashMap<>();
+    // Row hashes (or TOMBSTONE) of records sent and not yet read back, dropped again when the send fails
+    private final Map<String, String> sentHashes = new ConcurrentHashMap<>();
+
+    private volatile boolean materialized;
+
+    public KafkaRouteDefinitionRepository(KafkaTemplate<String, String> kafkaTemplate, RouteRepository routeRepository,
+                                          RouteDefinitionConverter converter, ObjectMapper objectMapper, String topic,
+                                          Duration maxSnapshotAge, Scheduler blockingScheduler) {
+        super(converter, maxSnapshotAge);
+        this.kafkaTemplate = kafkaTemplate;
+        this.routeRepository = routeRepository;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    @Override
+    protected Flux<RouteEntity> loadEnabledRoutes() {
+        return Flux.defer(() -> {
+            if (!materialized) {
+                return Flux.error(new IllegalStateException("Route log " + topic + " has not been read up to its end yet"));
+            }
+            return Flux.fromIterable(routes.values().stream()
+                    .filter(route -> Boolean.TRUE.equals(route.getEnabled()))
+                    .sorted(ROUTE_ORDER)
+                    .toList());
+        });
+    }
+
+    /**
+     * The route log has been read up to the end offsets found at startup, the route table is complete
+     */
+    public void markMaterialized() {
+        materialized = true;
+        invalidate();
+        log.info("Materialized {} routes from route log {}", routes.size(), topic);
+    }
+
+    public boolean isMaterialized() {
+        return materialized;
+    }
+
+    /**
+     * Copy of the materialized route table, disabled routes included
+     */
+    public List<RouteEntity> materializedRoutes() {
+        return List.copyOf(routes.values());
+    }
+
+    /**
+     * Apply a record read from the route log to the route table only; a null payload is a tombstone.
+     *
+     * @return whether the route table changed
+     */
+    public boolean materialize(String routeId, String payload) {
+        if (routeId == null) {
+            log.warn("Ignoring route log record without a key: {}", payload);
+            return false;
+        }
+        if (payload == null) {
+            sentHashes.remove(routeId, TOMBSTONE);
+            return routes.remove(routeId) != null;
+        }
+
+        RouteEntity route = fromJson(payload);
+        if (route == null) {
+            return false;
+        }
+        sentHashes.remove(routeId, converter.rowHash(route));
+        RouteEntity previous = routes.put(routeId, route);
+        return previous == null || !converter.rowHash(previous).equals(converter.rowHash(route));
+    }
+
+    /**
+     * Apply the route table entry of a materialized route to the snapshot, removing the route when it is gone
+     *
+     * @return false when the snapshot is stale and a full reload is required instead
+     */
+    public boolean applyToSnapshot(String routeId) {
+        RouteEntity route = routes.get(routeId);
+        return route != null ? applyChange(route) : applyDelete(routeId);
+    }
+
+    /**
+     * Write changed routes and tombstones for deleted routes to the route log; routes the log already holds
+     * with the same content are skipped. Failed sends are logged and written again by the next write or seed.
+     */
+    @Override
+    public void writeThrough(Collection<RouteEntity> changedRoutes, Collection<String> deletedRouteIds) {
+        write(changedRoutes, deletedRouteIds);
+    }
+
+    private CompletableFuture<Void> write(Collection<RouteEntity> changedRoutes, Collection<String> deletedRouteIds) {
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (RouteEntity route : changedRoutes) {
+            String hash = converter.rowHash(route);
+            if (!hash.equals(loggedHash(route.getId()))) {
+                sends.add(send(route.getId(), toJson(route), hash));
+            }
+        }
+        for (String routeId : deletedRouteIds) {
+            // Until the log is read to its end a missing route may still be in it
+            if (!materialized || !TOMBSTONE.equals(loggedHash(routeId))) {
+                sends.add(send(routeId, null, TOMBSTONE));
+            }
+        }
+        return CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Content the log holds, or will hold once the records in flight are written
+     */
+    private String loggedHash(String routeId) {
+        String sent = sentHashes.get(routeId);
+        if (sent != null) {
+            return sent;
+        }
+        RouteEntity route = routes.get(routeId);
+        return route != null ? converter.rowHash(route) : TOMBSTONE;
+    }
+
+    /**
+     * Save to the routes table first, which stays the source the route log is seeded from
+     */
+    @Override
+    public Mono<Void> save(Mono<RouteDefinition> route) {
+        return route.map(converter::toRouteEntity)
+                .flatMap(entity -> Mono.fromCallable(() -> routeRepository.save(converter.prepareForWrite(entity)))
+                        .subscribeOn(blockingScheduler))
+                .flatMap(saved -> Mono.fromFuture(() -> write(List.of(saved), List.of()))
+                        .then(Mono.fromRunnable(() -> applyChange(saved))))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> delete(Mono<String> routeId) {
+        return routeId.flatMap(id -> Mono.fromRunnable(() -> routeRepository.deleteById(id))
+                        .subscribeOn(blockingScheduler)
+                        .then(Mono.fromFuture(() -> write(List.of(), List.of(id))))
+                        .then(Mono.fromRunnable(() -> applyDelete(id))))
+                .then();
+    }
+
+    private CompletableFuture<?> send(String routeId, String payload, String hash) {
+        sentHashes.put(routeId, hash);
+        return kafkaTemplate.send(topic, routeId, payload).whenComplete((result, e) -> {
+            if (e != null) {
+                // The log still holds the previous content, so the next write of this content is sent again
+                sentHashes.remove(routeId, hash);
+                log.error("Failed to write route {} to route log {}", routeId, topic, e);
+            }
+        });
+    }
+
+    private String toJson(RouteEntity route) {
+        try {
+            return objectMapper.writeValueAsString(route);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize route " + route.getId(), e);
+        }
+    }
+
+    private RouteEntity fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, RouteEntity.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable route log record: {}", payload, e);
+            return null;
+        }
+    }
+}
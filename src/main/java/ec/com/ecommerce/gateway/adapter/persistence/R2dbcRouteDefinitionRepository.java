@@ -0,0 +1,155 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Fully non-blocking route definition repository reading the routes table through R2DBC.
+ * Rows are streamed and converted as they arrive, without any boundedElastic hop.
+ */
+@Slf4j
+public class R2dbcRouteDefinitionRepository extends SnapshotRouteDefinitionRepository implements AutoCloseable {
+
+    private static final String SELECT_ENABLED_ROUTES = """
+            SELECT id, uri, predicates, filters, predicate_definitions::text AS predicate_definitions,
+                   filter_definitions::text AS filter_definitions, order_num, description, enabled, service_name,
+                   content_hash
+            FROM routes
+            WHERE enabled = true
+            """;
+
+    private static final String UPSERT_ROUTE = """
+            INSERT INTO routes (id, uri, predicates, filters, predicate_definitions, filter_definitions, order_num, enabled,
+                                content_hash)
+            VALUES (:id, :uri, :predicates, :filters, CAST(:predicateDefinitions AS jsonb), CAST(:filterDefinitions AS jsonb),
+                    :orderNum, :enabled, :contentHash)
+            ON CONFLICT (id) DO UPDATE SET
+                uri = EXCLUDED.uri,
+                predicates = EXCLUDED.predicates,
+                filters = EXCLUDED.filters,
+                predicate_definitions = EXCLUDED.predicate_definitions,
+                filter_definitions = EXCLUDED.filter_definitions,
+                order_num = EXCLUDED.order_num,
+                enabled = EXCLUDED.enabled,
+                content_hash = EXCLUDED.content_hash
+            """;
+
+    private static final String DELETE_ROUTE = "DELETE FROM routes WHERE id = :id";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    public R2dbcRouteDefinitionRepository(ConnectionPool connectionPool, RouteDefinitionConverter converter,
+                                          ObjectMapper objectMapper, Duration maxSnapshotAge) {
+        super(converter, maxSnapshotAge);
+        this.connectionPool = connectionPool;
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected Flux<RouteEntity> loadEnabledRoutes() {
+        return databaseClient.sql(SELECT_ENABLED_ROUTES)
+                .map(this::toRouteEntity)
+                .all();
+    }
+
+    @Override
+    public Mono<Void> save(Mono<RouteDefinition> route) {
+        return route.map(converter::toRouteEntity)
+                .flatMap(entity -> {
+                    DatabaseClient.GenericExecuteSpec upsert = databaseClient.sql(UPSERT_ROUTE).bind("id", entity.getId());
+                    upsert = bindNullable(upsert, "uri", entity.getUri(), String.class);
+                    upsert = bindNullable(upsert, "predicates", entity.getPredicates(), String.class);
+                    upsert = bindNullable(upsert, "filters", entity.getFilters(), String.class);
+                    upsert = bindNullable(upsert, "predicateDefinitions", toJson(entity.getPredicateDefinitions()), String.class);
+                    upsert = bindNullable(upsert, "filterDefinitions", toJson(entity.getFilterDefinitions()), String.class);
+                    upsert = bindNullable(upsert, "orderNum", entity.getOrderNum(), Integer.class);
+                    upsert = bindNullable(upsert, "enabled", entity.getEnabled(), Boolean.class);
+                    upsert = bindNullable(upsert, "contentHash", entity.getContentHash(), String.class);
+                    return upsert.fetch().rowsUpdated();
+                })
+                .doOnSuccess(rows -> invalidate())
+                .then();
+    }
+
+    @Override
+    public Mono<Void> delete(Mono<String> routeId) {
+        return routeId.flatMap(id -> databaseClient.sql(DELETE_ROUTE)
+                        .bind("id", id)
+                        .fetch()
+                        .rowsUpdated())
+                .doOnSuccess(rows -> invalidate())
+                .then();
+    }
+
+    @Override
+    public void close() {
+        log.info("Closing R2DBC route connection pool");
+        connectionPool.dispose();
+    }
+
+    private RouteEntity toRouteEntity(Readable row) {
+        return RouteEntity.builder()
+                .id(row.get("id", String.class))
+                .uri(row.get("uri", String.class))
+                .predicates(row.get("predicates", String.class))
+                .filters(row.get("filters", String.class))
+                .predicateDefinitions(fromJson(row.get("predicate_definitions", String.class), new TypeReference<List<PredicateDefinition>>() {
+                }))
+                .filterDefinitions(fromJson(row.get("filter_definitions", String.class), new TypeReference<List<FilterDefinition>>() {
+                }))
+                .orderNum(row.get("order_num", Integer.class))
+                .description(row.get("description", String.class))
+                .enabled(row.get("enabled", Boolean.class))
+                .serviceName(row.get("service_name", String.class))
+                .contentHash(row.get("content_hash", String.class))
+                .build();
+    }
+
+    /**
+     * DatabaseClient rejects null values, those have to be bound as typed nulls
+     */
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                                  Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize route definitions", e);
+        }
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable structured route definitions: {}", json, e);
+            return null;
+        }
+    }
+}
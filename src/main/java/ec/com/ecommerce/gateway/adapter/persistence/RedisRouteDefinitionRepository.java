@@ -0,0 +1,298 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Route definition repository serving the route table from Redis, with Postgres as the durable source.
+ * <p>
+ * Layout: one hash per enabled route, a sorted set of route ids scored by order and a version key
+ * incremented on every write. Each route is written or removed together with the index and the version
+ * in one Lua script, and the route hashes are read in a single script call after the index, skipped
+ * entirely when the version did not change since the last read. Writes go to Postgres first and are
+ * written through to Redis; Redis is only re-synced from Postgres when it lost its data or a write-through
+ * failed, or on an explicit {@link #resync()}.
+ */
+@Slf4j
+public class RedisRouteDefinitionRepository extends SnapshotRouteDefinitionRepository {
+
+    private static final List<String> FIELDS = List.of("id", "uri", "predicates", "filters", "predicateDefinitions",
+            "filterDefinitions", "orderNum", "enabled", "serviceName", "description");
+
+    /**
+     * KEYS: the route hashes; ARGV: the fields to read from each
+     */
+    private static final RedisScript<List> READ_ROUTES = RedisScript.of("""
+            local result = {}
+            for _, key in ipairs(KEYS) do
+                local values = redis.call('HMGET', key, unpack(ARGV))
+                for i = 1, #values do
+                    result[#result + 1] = values[i] or ''
+                end
+            end
+            return result
+            """, List.class);
+
+    /**
+     * KEYS: index, version, route hash; ARGV: route id, order, then the hash as field/value pairs
+     */
+    private static final RedisScript<Long> WRITE_ROUTE = RedisScript.of("""
+            redis.call('DEL', KEYS[3])
+            redis.call('HSET', KEYS[3], unpack(ARGV, 3))
+            redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+            return redis.call('INCR', KEYS[2])
+            """, Long.class);
+
+    /**
+     * KEYS: index, version, route hash; ARGV: route id
+     */
+    private static final RedisScript<Long> REMOVE_ROUTE = RedisScript.of("""
+            redis.call('ZREM', KEYS[1], ARGV[1])
+            redis.call('DEL', KEYS[3])
+            return redis.call('INCR', KEYS[2])
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redis;
+    private final RouteRepository routeRepository;
+    private final ObjectMapper objectMapper;
+    private final String indexKey;
+    private final String versionKey;
+    private final String routeKeyPrefix;
+    private final Scheduler blockingScheduler;
+    private final AtomicBoolean resyncRequired = new AtomicBoolean(false);
+
+    private volatile String lastReadVersion;
+    private volatile List<RouteEntity> lastReadRoutes = List.of();
+
+    public RedisRouteDefinitionRepository(ReactiveStringRedisTemplate redis, RouteRepository routeRepository,
+                                          RouteDefinitionConverter converter, ObjectMapper objectMapper,
+                                          String keyPrefix, Duration maxSnapshotAge, Scheduler blockingScheduler) {
+        super(converter, maxSnapshotAge);
+        this.redis = redis;
+        this.blockingScheduler = blockingScheduler;
+        this.routeRepository = routeRepository;
+        this.objectMapper = objectMapper;
+        this.indexKey = keyPrefix + ":index";
+        this.versionKey = keyPrefix + ":version";
+        this.routeKeyPrefix = keyPrefix + ":route:";
+    }
+
+    @Override
+    protected Flux<RouteEntity> loadEnabledRoutes() {
+        Mono<Boolean> syncNeeded = resyncRequired.getAndSet(false)
+                ? Mono.just(true)
+                : redis.hasKey(versionKey).map(exists -> !exists);
+
+        return syncNeeded
+                .flatMap(sync -> sync ? syncFromDatabase() : Mono.<Void>empty())
+                .doOnError(e -> resyncRequired.set(true))
+                .thenMany(readFromRedis());
+    }
+
+    /**
+     * Replace the Redis route table with the enabled routes stored in Postgres on the next reload, for when
+     * the two are known to have diverged
+     */
+    public void resync() {
+        resyncRequired.set(true);
+        invalidate();
+    }
+
+    @Override
+    public void writeThrough(Collection<RouteEntity> routes, Collection<String> deletedRouteIds) {
+        Flux.fromIterable(routes)
+                .concatMap(route -> Boolean.TRUE.equals(route.getEnabled()) ? writeRoute(route) : removeRoute(route.getId()))
+                .thenMany(Flux.fromIterable(deletedRouteIds).concatMap(this::removeRoute))
+                .subscribe(null, e -> {
+                    log.error("Failed to write route changes through to Redis, scheduling re-sync", e);
+                    resync();
+                });
+    }
+
+    @Override
+    public Mono<Void> save(Mono<RouteDefinition> route) {
+        return route.map(converter::toRouteEntity)
+                .flatMap(entity -> Mono.fromCallable(() -> routeRepository.save(entity))
+                        .subscribeOn(blockingScheduler))
+                .flatMap(this::writeRoute)
+                .doOnSuccess(ignored -> invalidate())
+                .then();
+    }
+
+    @Override
+    public Mono<Void> delete(Mono<String> routeId) {
+        return routeId.flatMap(id -> Mono.fromRunnable(() -> routeRepository.deleteById(id))
+                        .subscribeOn(blockingScheduler)
+                        .then(removeRoute(id)))
+                .doOnSuccess(ignored -> invalidate())
+                .then();
+    }
+
+    private Flux<RouteEntity> readFromRedis() {
+        return redis.opsForValue().get(versionKey)
+                .defaultIfEmpty("")
+                .flatMapMany(version -> {
+                    if (version.equals(lastReadVersion)) {
+                        log.debug("Redis route table version {} unchanged", version);
+                        return Flux.fromIterable(lastReadRoutes);
+                    }
+                    return redis.opsForZSet().range(indexKey, Range.<Long>unbounded())
+                            .map(id -> routeKeyPrefix + id)
+                            .collectList()
+                            .flatMap(routeKeys -> routeKeys.isEmpty()
+                                    ? Mono.just(List.<RouteEntity>of())
+                                    : redis.execute(READ_ROUTES, routeKeys, FIELDS)
+                                            .collectList()
+                                            .map(emitted -> toRouteEntities(flatten(emitted))))
+                            .doOnNext(routes -> {
+                                lastReadRoutes = routes;
+                                lastReadVersion = version;
+                                log.debug("Read {} routes from Redis at version {}", routes.size(), version);
+                            })
+                            .flatMapMany(Flux::fromIterable);
+                });
+    }
+
+    /**
+     * Replace the Redis route table with the enabled routes stored in Postgres
+     */
+    private Mono<Void> syncFromDatabase() {
+        return Mono.fromCallable(routeRepository::findByEnabledTrue)
+                .subscribeOn(blockingScheduler)
+                .flatMap(routes -> {
+                    Set<String> ids = routes.stream().map(RouteEntity::getId).collect(Collectors.toSet());
+                    Mono<Void> removeStale = redis.opsForZSet().range(indexKey, Range.<Long>unbounded())
+                            .filter(id -> !ids.contains(id))
+                            .flatMap(this::removeRoute)
+                            .then();
+                    return removeStale
+                            .then(Flux.fromIterable(routes).flatMap(this::writeRoute).then())
+                            .doOnSuccess(ignored -> log.info("Synchronized {} routes from database to Redis", routes.size()));
+                });
+    }
+
+    private Mono<Void> writeRoute(RouteEntity route) {
+        List<String> args = new ArrayList<>();
+        args.add(route.getId());
+        args.add(String.valueOf(route.getOrderNum() != null ? route.getOrderNum() : 0));
+        toHash(route).forEach((field, value) -> {
+            args.add(field);
+            args.add(value);
+        });
+        return redis.execute(WRITE_ROUTE, routeKeys(route.getId()), args).then();
+    }
+
+    private Mono<Void> removeRoute(String routeId) {
+        return redis.execute(REMOVE_ROUTE, routeKeys(routeId), List.of(routeId)).then();
+    }
+
+    private List<String> routeKeys(String routeId) {
+        return List.of(indexKey, versionKey, routeKeyPrefix + routeId);
+    }
+
+    private Map<String, String> toHash(RouteEntity route) {
+        Map<String, String> hash = new LinkedHashMap<>();
+        putIfPresent(hash, "id", route.getId());
+        putIfPresent(hash, "uri", route.getUri());
+        putIfPresent(hash, "predicates", route.getPredicates());
+        putIfPresent(hash, "filters", route.getFilters());
+        putIfPresent(hash, "predicateDefinitions", toJson(route.getPredicateDefinitions()));
+        putIfPresent(hash, "filterDefinitions", toJson(route.getFilterDefinitions()));
+        putIfPresent(hash, "orderNum", route.getOrderNum());
+        putIfPresent(hash, "enabled", route.getEnabled());
+        putIfPresent(hash, "serviceName", route.getServiceName());
+        putIfPresent(hash, "description", route.getDescription());
+        return hash;
+    }
+
+    private List<RouteEntity> toRouteEntities(List<?> values) {
+        List<RouteEntity> routes = new ArrayList<>(values.size() / FIELDS.size());
+        for (int offset = 0; offset + FIELDS.size() <= values.size(); offset += FIELDS.size()) {
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < FIELDS.size(); i++) {
+                String value = String.valueOf(values.get(offset + i));
+                row.put(FIELDS.get(i), value.isEmpty() ? null : value);
+            }
+            if (row.get("id") == null) {
+                // Removed between reading the index and the hashes
+                continue;
+            }
+            routes.add(RouteEntity.builder()
+                    .id(row.get("id"))
+                    .uri(row.get("uri"))
+                    .predicates(row.get("predicates"))
+                    .filters(row.get("filters"))
+                    .predicateDefinitions(fromJson(row.get("predicateDefinitions"), new TypeReference<List<PredicateDefinition>>() {
+                    }))
+                    .filterDefinitions(fromJson(row.get("filterDefinitions"), new TypeReference<List<FilterDefinition>>() {
+                    }))
+                    .orderNum(row.get("orderNum") != null ? Integer.valueOf(row.get("orderNum")) : null)
+                    .enabled(Boolean.valueOf(row.get("enabled")))
+                    .serviceName(row.get("serviceName"))
+                    .description(row.get("description"))
+                    .build());
+        }
+        return routes;
+    }
+
+    /**
+     * The script reply is either emitted as one list or element by element, depending on the driver
+     */
+    private static List<?> flatten(List<?> emitted) {
+        if (emitted.size() == 1 && emitted.get(0) instanceof List<?> values) {
+            return values;
+        }
+        return emitted;
+    }
+
+    private static void putIfPresent(Map<String, String> hash, String field, Object value) {
+        if (value != null) {
+            hash.put(field, value.toString());
+        }
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize route definitions", e);
+        }
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable structured route definitions: {}", json, e);
+            return null;
+        }
+    }
+}
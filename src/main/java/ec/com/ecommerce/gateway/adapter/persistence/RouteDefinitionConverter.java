@@ -0,0 +1,383 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Converts between stored {@link RouteEntity} rows and gateway {@link RouteDefinition}s.
+ * Structured predicate/filter definitions are used when present, the legacy strings otherwise; those are either
+ * comma-joined or, as sent by route events, JSON arrays of definitions.
+ * Converted definitions are cached by the row's stored content hash, computed only for rows written without one,
+ * so unchanged rows are never parsed twice. The cache evicts the
+ * least recently used definitions and is sized from the route table, so a full reload always fits.
+ */
+@Slf4j
+public class RouteDefinitionConverter {
+    private static final String SWAGGER_AGGREGATOR_PATH = "/swagger-aggregator";
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<List<PredicateDefinition>> PREDICATE_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<FilterDefinition>> FILTER_LIST = new TypeReference<>() {
+    };
+
+    // Start of a new legacy filter entry, e.g. "StripPrefix=1", "RewritePath=..." or "PreserveHostHeader"
+    private static final Pattern DEFINITION_START = Pattern.compile("^[A-Z][A-Za-z0-9]*(=.*|\\[.*)?$");
+    // Start of a new legacy predicate entry, e.g. "Path=/orders/**" or "Method[methods=GET]"; predicates always take args
+    private static final Pattern PREDICATE_START = Pattern.compile("^[A-Z][A-Za-z0-9]*[=\\[].*$");
+
+    private final Map<String, RouteDefinition> definitionsByHash = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RouteDefinition> eldest) {
+            return size() > maxCacheSize;
+        }
+    };
+    private volatile int maxCacheSize;
+
+    public RouteDefinitionConverter() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    public RouteDefinitionConverter(int maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Grow the cache to hold a table of the given number of routes twice, the current and the next version
+     */
+    public void reserve(int routeCount) {
+        if (routeCount * 2 > maxCacheSize) {
+            maxCacheSize = routeCount * 2;
+        }
+    }
+
+    /**
+     * Convert a stored route into a gateway route definition, or null if the row cannot be converted.
+     * The returned definition is shared and must not be modified.
+     */
+    public RouteDefinition toRouteDefinition(RouteEntity entity) {
+        String hash = entity.getContentHash() != null ? entity.getContentHash() : contentHash(entity);
+        RouteDefinition cached;
+        synchronized (definitionsByHash) {
+            cached = definitionsByHash.get(hash);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        RouteDefinition converted = convert(entity);
+        if (converted != null) {
+            synchronized (definitionsByHash) {
+                definitionsByHash.put(hash, converted);
+            }
+        }
+        return converted;
+    }
+
+    /**
+     * SHA-256 over every field that affects the converted route definition
+     */
+    public String contentHash(RouteEntity entity) {
+        return sha256(String.join("\0",
+                String.valueOf(entity.getId()),
+                String.valueOf(entity.getUri()),
+                String.valueOf(entity.getPredicates()),
+                String.valueOf(entity.getFilters()),
+                String.valueOf(entity.getPredicateDefinitions()),
+                String.valueOf(entity.getFilterDefinitions()),
+                String.valueOf(entity.getOrderNum())));
+    }
+
+    /**
+     * SHA-256 over every stored field, kept in the content_hash column to skip writes that change nothing
+     */
+    public String rowHash(RouteEntity entity) {
+        return sha256(String.join("\0",
+                contentHash(entity),
+                String.valueOf(entity.getEnabled()),
+                String.valueOf(entity.getDescription()),
+                String.valueOf(entity.getServiceName())));
+    }
+
+    /**
+     * Fill the structured definitions and stamp the row hash right before the route is written
+     */
+    public RouteEntity prepareForWrite(RouteEntity route) {
+        ensureStructuredDefinitions(route);
+        route.setContentHash(rowHash(route));
+        return route;
+    }
+
+    private static String sha256(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Fill missing structured definitions from the legacy or JSON strings, so the row is stored losslessly
+     */
+    public RouteEntity ensureStructuredDefinitions(RouteEntity route) {
+        if (route.getPredicateDefinitions() == null) {
+            route.setPredicateDefinitions(parsePredicates(route.getPredicates()));
+        }
+        if (route.getFilterDefinitions() == null) {
+            route.setFilterDefinitions(parseFilters(route.getFilters()));
+        }
+        return route;
+    }
+
+    private RouteDefinition convert(RouteEntity entity) {
+        try {
+            RouteDefinition rd = new RouteDefinition();
+            rd.setId(entity.getId());
+            rd.getMetadata().put(RouteSnapshotRepository.ROUTE_ID_METADATA, entity.getId());
+
+            // Set URI
+            if (entity.getUri() != null) {
+                rd.setUri(URI.create(entity.getUri()));
+            }
+
+            // Set predicates, preferring the structured definitions
+            if (entity.getPredicateDefinitions() != null) {
+                rd.setPredicates(copyPredicates(entity.getPredicateDefinitions()));
+            } else if (entity.getPredicates() != null && !entity.getPredicates().isEmpty()) {
+                List<PredicateDefinition> predicates = parsePredicates(entity.getPredicates());
+                rd.setPredicates(predicates);
+                log.debug("Set predicates for route {}: {}", entity.getId(), predicates);
+            }
+
+            // Set filters, preferring the structured definitions
+            if (entity.getFilterDefinitions() != null) {
+                rd.setFilters(copyFilters(entity.getFilterDefinitions()));
+            } else if (entity.getFilters() != null && !entity.getFilters().isEmpty()) {
+                List<FilterDefinition> filters = parseFilters(entity.getFilters());
+                rd.setFilters(filters);
+                log.debug("Set filters for route {}: {}", entity.getId(), filters);
+            }
+
+            // Set order
+            if (entity.getOrderNum() != null) {
+                rd.setOrder(entity.getOrderNum());
+            }
+
+            log.debug("Successfully converted route entity {} to route definition", entity.getId());
+            return rd;
+        } catch (Exception e) {
+            log.error("Error converting route entity {} to route definition", entity.getId(), e);
+            return null;
+        }
+    }
+
+    private List<PredicateDefinition> copyPredicates(List<PredicateDefinition> source) {
+        return source.stream().map(p -> {
+            PredicateDefinition copy = new PredicateDefinition();
+            copy.setName(p.getName());
+            copy.setArgs(new LinkedHashMap<>(p.getArgs()));
+            return copy;
+        }).toList();
+    }
+
+    private List<FilterDefinition> copyFilters(List<FilterDefinition> source) {
+        return source.stream().map(f -> {
+            FilterDefinition copy = new FilterDefinition();
+            copy.setName(f.getName());
+            copy.setArgs(new LinkedHashMap<>(f.getArgs()));
+            return copy;
+        }).toList();
+    }
+
+    /**
+     * Parse a JSON array of predicate definitions or a legacy comma-joined predicate string.
+     * As with filters, commas only separate predicates when the next part starts a new one, so
+     * Method=GET,POST keeps both methods.
+     */
+    public List<PredicateDefinition> parsePredicates(String predicatesStr) {
+        if (predicatesStr == null || predicatesStr.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (isJsonArray(predicatesStr)) {
+            return readJson(predicatesStr, PREDICATE_LIST);
+        }
+
+        return splitDefinitions(predicatesStr, PREDICATE_START).stream().map(this::parsePredicateDefinition).toList();
+    }
+
+    private PredicateDefinition parsePredicateDefinition(String predicate) {
+        PredicateDefinition pd = new PredicateDefinition();
+
+        // Format: Name[key1=value1;key2=value2]
+        int bracketStart = predicate.indexOf('[');
+        int bracketEnd = predicate.indexOf(']');
+        if (bracketStart > 0 && bracketEnd > bracketStart) {
+            pd.setName(predicate.substring(0, bracketStart));
+            String argsStr = predicate.substring(bracketStart + 1, bracketEnd);
+            String[] args = argsStr.split(";");
+            for (String arg : args) {
+                String[] kv = arg.split("=", 2);
+                if (kv.length == 2) {
+                    pd.addArg(kv[0], kv[1]);
+                }
+            }
+        } else {
+            // fallback to old format for backward compatibility
+            if (predicate.startsWith("Path=")) {
+                pd.setName("Path");
+                pd.addArg("pattern", predicate.substring(5));
+            } else if (predicate.startsWith("Method=")) {
+                pd.setName("Method");
+                pd.addArg("methods", predicate.substring(7));
+            } else {
+                pd.setName("Path");
+                pd.addArg("pattern", predicate);
+            }
+        }
+
+        return pd;
+    }
+
+    /**
+     * Parse a legacy comma-joined filter string.
+     * Commas only separate filters when the next part starts a new filter, so values such as
+     * RewritePath=/a/(?<segment>.*),/b/${segment} keep their comma. JSON arrays of filter definitions are read as such.
+     */
+    public List<FilterDefinition> parseFilters(String filtersStr) {
+        if (filtersStr == null || filtersStr.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (isJsonArray(filtersStr)) {
+            return readJson(filtersStr, FILTER_LIST);
+        }
+
+        return splitDefinitions(filtersStr, DEFINITION_START).stream().map(this::parseFilterDefinition).toList();
+    }
+
+    private static List<String> splitDefinitions(String definitions, Pattern definitionStart) {
+        List<String> entries = new ArrayList<>();
+        for (String part : definitions.split(",")) {
+            String trimmed = part.trim();
+            if (!entries.isEmpty() && !definitionStart.matcher(trimmed).matches()) {
+                entries.set(entries.size() - 1, entries.get(entries.size() - 1) + "," + trimmed);
+            } else {
+                entries.add(trimmed);
+            }
+        }
+        return entries.stream().filter(entry -> !entry.isEmpty()).toList();
+    }
+
+    private static boolean isJsonArray(String value) {
+        String trimmed = value.strip();
+        return trimmed.startsWith("[") && trimmed.endsWith("]");
+    }
+
+    private static <T> List<T> readJson(String json, TypeReference<List<T>> type) {
+        try {
+            List<T> definitions = JSON.readValue(json, type);
+            return definitions != null ? definitions : Collections.emptyList();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid route definition JSON: " + json, e);
+        }
+    }
+
+    private FilterDefinition parseFilterDefinition(String filter) {
+        FilterDefinition fd = new FilterDefinition();
+
+        if (filter.startsWith("StripPrefix=")) {
+            fd.setName("StripPrefix");
+            fd.addArg("parts", filter.substring(12));
+        } else if (filter.startsWith("RewritePath=")) {
+            fd.setName("RewritePath");
+            String rewriteValue = filter.substring(12);
+            // Parse RewritePath=/swagger-ui.*,/swagger-aggregator format
+            String[] parts = rewriteValue.split(",", 2);
+            if (parts.length == 2) {
+                fd.addArg("regexp", parts[0]);
+                fd.addArg("replacement", parts[1]);
+            } else {
+                log.warn("Invalid RewritePath format: {}, skipping filter", filter);
+                // Return a simple pass-through filter instead of causing errors
+                fd.setName("StripPrefix");
+                fd.addArg("parts", "0");
+            }
+        } else if (filter.startsWith("RewritePath=/")) {
+            // Handle malformed RewritePath filters from database - skip them
+            log.warn("Invalid RewritePath format: {}, treating as simple redirect filter", filter);
+            fd.setName("SetPath");
+            fd.addArg("template", SWAGGER_AGGREGATOR_PATH);
+        } else if (filter.equals(SWAGGER_AGGREGATOR_PATH)) {
+            // Handle simple path filters
+            fd.setName("SetPath");
+            fd.addArg("template", SWAGGER_AGGREGATOR_PATH);
+        } else {
+            // Shortcut form, e.g. DiscoveredService=service: the gateway's own parsing keys the arguments by
+            // position, so they bind in the factory's shortcut field order
+            return new FilterDefinition(filter);
+        }
+
+        return fd;
+    }
+
+    /**
+     * Convert a gateway route definition into a route row, enabled by default
+     */
+    public RouteEntity toRouteEntity(RouteDefinition rd) {
+        RouteEntity entity = new RouteEntity();
+        entity.setId(rd.getId());
+        entity.setUri(rd.getUri() != null ? rd.getUri().toString() : null);
+        entity.setPredicates(convertPredicatesToString(rd.getPredicates()));
+        entity.setFilters(convertFiltersToString(rd.getFilters()));
+        // Structured copies keep the definitions lossless, the strings stay readable for older nodes
+        entity.setPredicateDefinitions(copyPredicates(rd.getPredicates()));
+        entity.setFilterDefinitions(copyFilters(rd.getFilters()));
+        entity.setOrderNum(rd.getOrder());
+        entity.setEnabled(true);
+        entity.setContentHash(rowHash(entity));
+        return entity;
+    }
+
+    private String convertPredicatesToString(List<PredicateDefinition> predicates) {
+        if (predicates == null || predicates.isEmpty()) {
+            return "";
+        }
+
+        return predicates.stream().map(p -> {
+            String args = p.getArgs().entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).collect(Collectors.joining(";"));
+            return p.getName() + "[" + args + "]";
+        }).collect(Collectors.joining(","));
+    }
+
+    private String convertFiltersToString(List<FilterDefinition> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return "";
+        }
+
+        return filters.stream().map(f -> {
+            if (f.getArgs() == null || f.getArgs().isEmpty()) {
+                return f.getName();
+            }
+            return f.getName() + "=" + String.join(",", f.getArgs().values());
+        }).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,95 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, versioned view of the converted route definitions.
+ * A new snapshot (with a higher version) is only created when the route table actually changes.
+ */
+public record RouteDefinitionSnapshot(long version, List<RouteDefinition> routes, Map<String, RouteDefinition> routesById,
+                                      Instant syncedAt) {
+
+    public RouteDefinitionSnapshot {
+        routes = List.copyOf(routes);
+        routesById = Map.copyOf(routesById);
+    }
+
+    /**
+     * Snapshot used before the first load, always considered out of date
+     */
+    public static RouteDefinitionSnapshot empty() {
+        return new RouteDefinitionSnapshot(0, List.of(), Map.of(), Instant.EPOCH);
+    }
+
+    /**
+     * Build a snapshot from freshly converted route definitions
+     */
+    public static RouteDefinitionSnapshot of(long version, List<RouteDefinition> routes) {
+        Map<String, RouteDefinition> byId = new LinkedHashMap<>();
+        routes.forEach(route -> byId.put(route.getId(), route));
+        return new RouteDefinitionSnapshot(version, routes, byId, Instant.now());
+    }
+
+    /**
+     * Same routes and version, marked as verified against the backing store now
+     */
+    public RouteDefinitionSnapshot synced() {
+        return new RouteDefinitionSnapshot(version, routes, routesById, Instant.now());
+    }
+
+    /**
+     * Next version with the given route added, or replaced in place if it already exists
+     */
+    public RouteDefinitionSnapshot withRoute(RouteDefinition route) {
+        List<RouteDefinition> updated = new ArrayList<>(routes);
+        RouteDefinition existing = routesById.get(route.getId());
+        if (route.equals(existing)) {
+            return this;
+        }
+        if (existing != null) {
+            updated.set(updated.indexOf(existing), route);
+        } else {
+            updated.add(route);
+        }
+        return next(updated);
+    }
+
+    /**
+     * Next version without the given route, or this snapshot if it was not present
+     */
+    public RouteDefinitionSnapshot withoutRoute(String routeId) {
+        if (!routesById.containsKey(routeId)) {
+            return this;
+        }
+        List<RouteDefinition> updated = routes.stream()
+                .filter(route -> !route.getId().equals(routeId))
+                .toList();
+        return next(updated);
+    }
+
+    private RouteDefinitionSnapshot next(List<RouteDefinition> updated) {
+        Map<String, RouteDefinition> byId = new LinkedHashMap<>();
+        updated.forEach(route -> byId.put(route.getId(), route));
+        return new RouteDefinitionSnapshot(version + 1, updated, byId, syncedAt);
+    }
+
+    public Optional<RouteDefinition> find(String routeId) {
+        return Optional.ofNullable(routesById.get(routeId));
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    public boolean isOlderThan(Duration maxAge) {
+        return syncedAt.plus(maxAge).isBefore(Instant.now());
+    }
+}
@@ -4,6 +4,7 @@ import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +15,11 @@ public interface RouteRepository extends JpaRepository<RouteEntity, String> {
      */
     List<RouteEntity> findByEnabledTrue();
     
+    /**
+     * Count enabled routes
+     */
+    long countByEnabledTrue();
+    
     /**
      * Find routes by service name
      */
@@ -24,8 +30,29 @@ public interface RouteRepository extends JpaRepository<RouteEntity, String> {
      */
     List<RouteEntity> findByServiceNameAndEnabledTrue(String serviceName);
     
+    /**
+     * Find routes that still only have the legacy predicate/filter strings
+     */
+    List<RouteEntity> findByPredicateDefinitionsIsNullOrFilterDefinitionsIsNull();
+    
+    /**
+     * Stored content hashes of the given routes, without loading the full rows
+     */
+    List<ContentHashView> findByIdIn(Collection<String> ids);
+    
+    /**
+     * Find routes whose id starts with either prefix
+     */
+    List<RouteEntity> findByIdStartingWithOrIdStartingWith(String prefix, String otherPrefix);
+    
     /**
      * Delete routes by service name
      */
     void deleteByServiceName(String serviceName);
+
+    interface ContentHashView {
+        String getId();
+
+        String getContentHash();
+    }
 }
@@ -0,0 +1,241 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Local binary copy of the last route snapshot loaded from the route store, so a node can serve
+ * routes before the database is reachable.
+ * <p>
+ * Layout: a fixed header (magic, format version, payload length, CRC32C of the payload) followed by the
+ * payload (snapshot version, save time and the route definitions as length-prefixed UTF-8 strings).
+ * The file is read through a memory mapping and only used when the checksum matches; it is replaced
+ * atomically on write, so a crash mid-write leaves the previous copy intact.
+ */
+@Slf4j
+public class RouteSnapshotFile {
+
+    private static final int MAGIC = 0x47575253; // "GWRS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES * 2;
+
+    private final Path path;
+
+    public RouteSnapshotFile(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Replace the file with the given snapshot
+     */
+    public void write(RouteDefinitionSnapshot snapshot) throws IOException {
+        byte[] payload = encode(snapshot);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(payload.length)
+                .putLong(crc.getValue())
+                .flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer[] buffers = {header, ByteBuffer.wrap(payload)};
+                while (buffers[1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.debug("Wrote route snapshot version {} with {} routes to {}", snapshot.version(), snapshot.size(), path);
+    }
+
+    /**
+     * The stored snapshot, or empty when there is no file or it is truncated, corrupt or of another format
+     */
+    public Optional<RouteDefinitionSnapshot> read() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                log.warn("Ignoring truncated route snapshot file {}", path);
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring route snapshot file {} of unknown format", path);
+                return Optional.empty();
+            }
+            long length = buffer.getLong();
+            long checksum = buffer.getLong();
+            if (length != buffer.remaining()) {
+                log.warn("Ignoring route snapshot file {}: expected {} payload bytes, found {}", path, length, buffer.remaining());
+                return Optional.empty();
+            }
+
+            ByteBuffer payload = buffer.slice();
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) {
+                log.warn("Ignoring route snapshot file {} with checksum mismatch", path);
+                return Optional.empty();
+            }
+            return Optional.of(decode(payload));
+        } catch (NoSuchFileException e) {
+            log.info("No route snapshot file at {}", path);
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable route snapshot file {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] encode(RouteDefinitionSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * Math.max(snapshot.size(), 1));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(snapshot.version());
+            out.writeLong(Instant.now().toEpochMilli());
+            out.writeInt(snapshot.size());
+            for (RouteDefinition route : snapshot.routes()) {
+                writeString(out, route.getId());
+                writeString(out, route.getUri() != null ? route.getUri().toString() : null);
+                out.writeInt(route.getOrder());
+                out.writeInt(route.getPredicates().size());
+                for (PredicateDefinition predicate : route.getPredicates()) {
+                    writeString(out, predicate.getName());
+                    writeMap(out, predicate.getArgs());
+                }
+                out.writeInt(route.getFilters().size());
+                for (FilterDefinition filter : route.getFilters()) {
+                    writeString(out, filter.getName());
+                    writeMap(out, filter.getArgs());
+                }
+                Map<String, String> metadata = new LinkedHashMap<>();
+                route.getMetadata().forEach((key, value) -> {
+                    if (value instanceof String text) {
+                        metadata.put(key, text);
+                    }
+                });
+                writeMap(out, metadata);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static RouteDefinitionSnapshot decode(ByteBuffer in) {
+        try {
+            long version = in.getLong();
+            in.getLong(); // save time, informational
+            int count = in.getInt();
+            List<RouteDefinition> routes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                RouteDefinition route = new RouteDefinition();
+                route.setId(readString(in));
+                String uri = readString(in);
+                if (uri != null) {
+                    route.setUri(URI.create(uri));
+                }
+                route.setOrder(in.getInt());
+
+                int predicateCount = in.getInt();
+                List<PredicateDefinition> predicates = new ArrayList<>(predicateCount);
+                for (int p = 0; p < predicateCount; p++) {
+                    PredicateDefinition predicate = new PredicateDefinition();
+                    predicate.setName(readString(in));
+                    predicate.setArgs(readMap(in));
+                    predicates.add(predicate);
+                }
+                route.setPredicates(predicates);
+
+                int filterCount = in.getInt();
+                List<FilterDefinition> filters = new ArrayList<>(filterCount);
+                for (int f = 0; f < filterCount; f++) {
+                    FilterDefinition filter = new FilterDefinition();
+                    filter.setName(readString(in));
+                    filter.setArgs(readMap(in));
+                    filters.add(filter);
+                }
+                route.setFilters(filters);
+                route.getMetadata().putAll(readMap(in));
+                routes.add(route);
+            }
+            return RouteDefinitionSnapshot.of(version, routes);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("Route snapshot payload ends early", e);
+        }
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(ByteBuffer in) {
+        int size = in.getInt();
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(readString(in), readString(in));
+        }
+        return map;
+    }
+
+    /**
+     * Length-prefixed UTF-8, with -1 for null
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Route definition repository that serves route lookups from an in-memory {@link RouteDefinitionSnapshot}
+ */
+public interface RouteSnapshotRepository extends RouteDefinitionRepository {
+
+    /**
+     * Metadata key carrying the route id on every route definition, used to scope route refreshes
+     */
+    String ROUTE_ID_METADATA = "gateway.route-id";
+
+    /**
+     * Current snapshot, without touching the backing store
+     */
+    RouteDefinitionSnapshot snapshot();
+
+    /**
+     * Hot feed of the changes applied to the snapshot from now on; slow subscribers miss entries
+     * rather than holding up route updates
+     */
+    Flux<RouteTableChange> changes();
+
+    /**
+     * Serve a snapshot restored from local storage until the backing store has been read.
+     * The restored snapshot counts as fresh; use a reload to reconcile it with the backing store.
+     *
+     * @return false when routes were already loaded, in which case the restored snapshot is ignored
+     */
+    boolean restore(RouteDefinitionSnapshot restored);
+
+    /**
+     * Reload the enabled routes from the backing store now, swapping the snapshot if anything changed
+     */
+    Mono<RouteDefinitionSnapshot> reload();
+
+    /**
+     * Mark the snapshot as stale so the next lookup reloads it from the backing store
+     */
+    void invalidate();
+
+    /**
+     * Write routes saved to and deleted from the routes table through to the store the snapshot is loaded from,
+     * when that is not the routes table itself. Called once by the node that made the change, whether or not the
+     * snapshot can be updated in place; a no-op by default.
+     */
+    default void writeThrough(Collection<RouteEntity> routes, Collection<String> deletedRouteIds) {
+    }
+
+    /**
+     * Apply a single saved route to the snapshot (disabled routes are removed).
+     *
+     * @return false when the snapshot is stale and a full reload is required instead
+     */
+    boolean applyChange(RouteEntity route);
+
+    /**
+     * Remove a single route from the snapshot.
+     *
+     * @return false when the snapshot is stale and a full reload is required instead
+     */
+    boolean applyDelete(String routeId);
+}
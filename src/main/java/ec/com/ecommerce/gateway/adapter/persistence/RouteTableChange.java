@@ -0,0 +1,24 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import java.time.Instant;
+
+/**
+ * One change applied to the in-memory route table, as seen by this node.
+ * A {@link Operation#RELOAD} entry has no route id and marks a full load of the table.
+ */
+public record RouteTableChange(long version, String routeId, Operation operation, Instant appliedAt) {
+
+    public enum Operation {
+        UPSERT,
+        DELETE,
+        RELOAD
+    }
+
+    static RouteTableChange of(long version, String routeId, Operation operation) {
+        return new RouteTableChange(version, routeId, operation, Instant.now());
+    }
+
+    static RouteTableChange reload(long version) {
+        return new RouteTableChange(version, null, Operation.RELOAD, Instant.now());
+    }
+}
@@ -0,0 +1,190 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Base for route stores that keep the converted routes in an immutable snapshot.
+ * The snapshot is only rebuilt after the table was changed through this gateway or once it is
+ * older than the configured max age; a failed reload keeps serving the last good snapshot.
+ * Every applied change is also published on a best-effort {@link #changes()} feed for diagnostics.
+ */
+@Slf4j
+public abstract class SnapshotRouteDefinitionRepository implements RouteSnapshotRepository {
+
+    protected final RouteDefinitionConverter converter;
+    private final Duration maxSnapshotAge;
+    private final AtomicReference<RouteDefinitionSnapshot> snapshot = new AtomicReference<>(RouteDefinitionSnapshot.empty());
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private final Sinks.Many<RouteTableChange> changes = Sinks.many().multicast().directBestEffort();
+
+    protected SnapshotRouteDefinitionRepository(RouteDefinitionConverter converter, Duration maxSnapshotAge) {
+        this.converter = converter;
+        this.maxSnapshotAge = maxSnapshotAge;
+    }
+
+    /**
+     * Stream the enabled routes from the backing store
+     */
+    protected abstract Flux<RouteEntity> loadEnabledRoutes();
+
+    @Override
+    public Flux<RouteDefinition> getRouteDefinitions() {
+        RouteDefinitionSnapshot current = snapshot.get();
+        if (!stale.get() && !current.isOlderThan(maxSnapshotAge)) {
+            return Flux.fromIterable(current.routes());
+        }
+
+        return reload()
+                .onErrorResume(e -> {
+                    log.error("Error loading routes from database, serving snapshot version {}", current.version(), e);
+                    return Mono.just(current);
+                })
+                .flatMapIterable(RouteDefinitionSnapshot::routes);
+    }
+
+    @Override
+    public RouteDefinitionSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    @Override
+    public Flux<RouteTableChange> changes() {
+        return changes.asFlux();
+    }
+
+    @Override
+    public boolean restore(RouteDefinitionSnapshot restored) {
+        RouteDefinitionSnapshot current = snapshot.get();
+        if (current.version() != 0 || restored.version() == 0 || !snapshot.compareAndSet(current, restored.synced())) {
+            return false;
+        }
+        stale.set(false);
+        log.info("Restored route snapshot version {} with {} routes", restored.version(), restored.size());
+        publish(RouteTableChange.reload(restored.version()));
+        return true;
+    }
+
+    @Override
+    public void invalidate() {
+        stale.set(true);
+    }
+
+    @Override
+    public boolean applyChange(RouteEntity route) {
+        if (!Boolean.TRUE.equals(route.getEnabled())) {
+            // Only the snapshot, the backing store is written separately through writeThrough
+            return removeFromSnapshot(route.getId());
+        }
+
+        RouteDefinition definition = converter.toRouteDefinition(route);
+        if (definition == null) {
+            return false;
+        }
+        return swapIfFresh(current -> current.withRoute(definition), route.getId(), RouteTableChange.Operation.UPSERT);
+    }
+
+    @Override
+    public boolean applyDelete(String routeId) {
+        return removeFromSnapshot(routeId);
+    }
+
+    private boolean removeFromSnapshot(String routeId) {
+        return swapIfFresh(current -> current.withoutRoute(routeId), routeId, RouteTableChange.Operation.DELETE);
+    }
+
+    private boolean swapIfFresh(UnaryOperator<RouteDefinitionSnapshot> change, String routeId,
+                                RouteTableChange.Operation operation) {
+        if (stale.get() || snapshot.get().version() == 0) {
+            return false;
+        }
+
+        RouteDefinitionSnapshot current;
+        RouteDefinitionSnapshot updated;
+        do {
+            current = snapshot.get();
+            updated = change.apply(current);
+        } while (!snapshot.compareAndSet(current, updated));
+
+        if (updated != current) {
+            publish(RouteTableChange.of(updated.version(), routeId, operation));
+        }
+        log.debug("Applied change of route {} to snapshot version {}", routeId, updated.version());
+        return true;
+    }
+
+    @Override
+    public Mono<RouteDefinitionSnapshot> reload() {
+        return Mono.defer(() -> {
+            // Clear the flag before reading so an invalidation racing with the query is not lost
+            stale.set(false);
+            return loadEnabledRoutes()
+                    .collectList()
+                    .map(this::convert)
+                    .map(this::swap)
+                    .doOnError(e -> stale.set(true));
+        });
+    }
+
+    private List<RouteDefinition> convert(List<RouteEntity> routes) {
+        // Sized before converting, so a table larger than the cache does not evict its own definitions
+        converter.reserve(routes.size());
+        return routes.stream()
+                .map(converter::toRouteDefinition)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private RouteDefinitionSnapshot swap(List<RouteDefinition> routes) {
+        RouteDefinitionSnapshot current = snapshot.get();
+        if (current.version() > 0 && current.routes().equals(routes)) {
+            snapshot.compareAndSet(current, current.synced());
+            log.debug("Route table unchanged, keeping snapshot version {}", current.version());
+            return snapshot.get();
+        }
+
+        RouteDefinitionSnapshot updated = RouteDefinitionSnapshot.of(current.version() + 1, routes);
+        snapshot.set(updated);
+        log.info("Loaded route snapshot version {} with {} routes", updated.version(), updated.size());
+        publishDifferences(current, updated);
+        return updated;
+    }
+
+    /**
+     * Describe a reload as per-route changes, or as a single reload entry for the first load
+     */
+    private void publishDifferences(RouteDefinitionSnapshot previous, RouteDefinitionSnapshot updated) {
+        if (previous.version() == 0) {
+            publish(RouteTableChange.reload(updated.version()));
+            return;
+        }
+        Map<String, RouteDefinition> before = previous.routesById();
+        updated.routesById().forEach((id, route) -> {
+            if (!route.equals(before.get(id))) {
+                publish(RouteTableChange.of(updated.version(), id, RouteTableChange.Operation.UPSERT));
+            }
+        });
+        before.keySet().stream()
+                .filter(id -> !updated.routesById().containsKey(id))
+                .forEach(id -> publish(RouteTableChange.of(updated.version(), id, RouteTableChange.Operation.DELETE)));
+    }
+
+    /**
+     * Serialized so concurrent reloads and deltas never fail the emission; without subscribers this is a no-op
+     */
+    private synchronized void publish(RouteTableChange change) {
+        changes.tryEmitNext(change);
+    }
+}
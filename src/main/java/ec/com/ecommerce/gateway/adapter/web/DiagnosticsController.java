@@ -1,92 +1,193 @@
 package ec.com.ecommerce.gateway.adapter.web;
 
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionSnapshot;
 import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteTableChange;
+import ec.com.ecommerce.gateway.application.metrics.RouteMetrics;
+import ec.com.ecommerce.gateway.application.metrics.RouteStats;
+import ec.com.ecommerce.gateway.application.metrics.VirtualThreadPinningMonitor;
+import ec.com.ecommerce.gateway.application.service.RouteService;
 import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.gateway.route.RouteDefinition;
-import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Operator diagnostics. Nothing here blocks the event loop: route table data comes from the in-memory
+ * snapshot, and database or discovery lookups run on the blocking scheduler. Summaries are returned by default,
+ * full listings are paginated.
+ */
 @Slf4j
 @RestController
 @RequestMapping("/admin/diagnostics")
 @RequiredArgsConstructor
 public class DiagnosticsController {
 
+    static final int MAX_PAGE_SIZE = 500;
+
     private final RouteRepository routeRepository;
-    private final RouteDefinitionRepository routeDefinitionRepository;
+    private final RouteSnapshotRepository routeDefinitionRepository;
     private final DiscoveryClient discoveryClient;
+    private final RouteMetrics routeMetrics;
+    private final VirtualThreadPinningMonitor pinningMonitor;
+    private final RouteService routeService;
+    private final Scheduler blockingScheduler;
 
     @GetMapping("/gateway-status")
-    public ResponseEntity<Map<String, Object>> getGatewayStatus() {
-        Map<String, Object> status = new HashMap<>();
-        
-        try {
-            // Database routes
-            List<RouteEntity> dbRoutes = routeRepository.findAll();
-            status.put("database_routes_count", dbRoutes.size());
-            status.put("database_routes", dbRoutes);
-            
-            // Gateway routes
-            Flux<RouteDefinition> gatewayRoutes = routeDefinitionRepository.getRouteDefinitions();
-            List<RouteDefinition> routeList = gatewayRoutes.collectList().block();
-            status.put("gateway_routes_count", routeList != null ? routeList.size() : 0);
-            status.put("gateway_routes", routeList);
-            
-            // Discovery services
-            List<String> services = discoveryClient.getServices();
-            status.put("discovery_services", services);
-            status.put("discovery_services_count", services.size());
-            
-            status.put("status", "OK");
-            
-        } catch (Exception e) {
-            log.error("Error generating diagnostics", e);
-            status.put("status", "ERROR");
-            status.put("error", e.getMessage());
-        }
-        
-        return ResponseEntity.ok(status);
+    public Mono<ResponseEntity<Map<String, Object>>> getGatewayStatus() {
+        RouteDefinitionSnapshot snapshot = routeDefinitionRepository.snapshot();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("gateway_routes_count", snapshot.size());
+        status.put("gateway_routes_snapshot_version", snapshot.version());
+        status.put("gateway_routes_synced_at", snapshot.syncedAt());
+
+        Mono<long[]> databaseCounts = Mono.fromCallable(() -> new long[]{routeRepository.count(), routeRepository.countByEnabledTrue()})
+                .subscribeOn(blockingScheduler);
+        Mono<List<String>> services = Mono.fromCallable(discoveryClient::getServices)
+                .subscribeOn(blockingScheduler);
+
+        return Mono.zip(databaseCounts, services)
+                .map(results -> {
+                    status.put("database_routes_count", results.getT1()[0]);
+                    status.put("database_enabled_routes_count", results.getT1()[1]);
+                    status.put("discovery_services", results.getT2());
+                    status.put("discovery_services_count", results.getT2().size());
+                    status.put("status", "OK");
+                    return status;
+                })
+                .onErrorResume(e -> {
+                    log.error("Error generating diagnostics", e);
+                    status.put("status", "ERROR");
+                    status.put("error", e.getMessage());
+                    return Mono.just(status);
+                })
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Page through the route definitions currently served by this node
+     */
+    @GetMapping("/routes")
+    public Map<String, Object> getGatewayRoutes(@RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "50") int size) {
+        RouteDefinitionSnapshot snapshot = routeDefinitionRepository.snapshot();
+        int pageSize = clampPageSize(size);
+        List<RouteDefinition> routes = snapshot.routes();
+        int from = (int) Math.min((long) Math.max(page, 0) * pageSize, routes.size());
+        int to = Math.min(from + pageSize, routes.size());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", snapshot.version());
+        result.put("page", Math.max(page, 0));
+        result.put("size", pageSize);
+        result.put("total", routes.size());
+        result.put("routes", routes.subList(from, to));
+        return result;
+    }
+
+    /**
+     * Page through the stored route rows, ordered by id
+     */
+    @GetMapping("/database-routes")
+    public Mono<Map<String, Object>> getDatabaseRoutes(@RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "50") int size) {
+        PageRequest request = PageRequest.of(Math.max(page, 0), clampPageSize(size), Sort.by("id"));
+        return Mono.fromCallable(() -> routeRepository.findAll(request))
+                .subscribeOn(blockingScheduler)
+                .map(this::toPageResult);
+    }
+
+    /**
+     * Live feed of route table changes applied on this node, as server-sent events or newline-delimited JSON
+     */
+    @GetMapping(value = "/routes/changes", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<RouteTableChange> streamRouteChanges() {
+        return routeDefinitionRepository.changes();
+    }
+
+    /**
+     * Hottest, slowest (by p99) and most failing routes on this node
+     */
+    @GetMapping("/routes/stats")
+    public Map<String, List<RouteStats>> getRouteStats(@RequestParam(defaultValue = "10") int limit) {
+        int top = clampPageSize(limit);
+        Map<String, List<RouteStats>> stats = new LinkedHashMap<>();
+        stats.put("hottest", routeMetrics.top(RouteStats.Sort.REQUESTS, top));
+        stats.put("slowest", routeMetrics.top(RouteStats.Sort.LATENCY, top));
+        stats.put("failing", routeMetrics.top(RouteStats.Sort.ERRORS, top));
+        return stats;
+    }
+
+    /**
+     * Virtual threads pinned to their carrier while blocking, with the most frequent sites
+     */
+    @GetMapping("/virtual-threads")
+    public Map<String, Object> getVirtualThreadPinning(@RequestParam(defaultValue = "10") int limit) {
+        return pinningMonitor.summary(clampPageSize(limit));
     }
 
     @GetMapping("/test-route")
-    public ResponseEntity<Map<String, Object>> testRoute() {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            // Create a test route directly
-            RouteEntity testRoute = RouteEntity.builder()
-                    .id("test-route-" + System.currentTimeMillis())
-                    .uri("lb://global-service")
-                    .predicates("Path=/test/**")
-                    .filters("StripPrefix=0")
-                    .orderNum(999)
-                    .description("Test route created by diagnostics")
-                    .enabled(true)
-                    .serviceName("test")
-                    .build();
-            
-            routeRepository.save(testRoute);
-            result.put("status", "SUCCESS");
-            result.put("message", "Test route created");
-            result.put("route", testRoute);
-            
-        } catch (Exception e) {
-            log.error("Error creating test route", e);
-            result.put("status", "ERROR");
-            result.put("error", e.getMessage());
-        }
-        
-        return ResponseEntity.ok(result);
+    public Mono<ResponseEntity<Map<String, Object>>> testRoute() {
+        return Mono.fromCallable(() -> {
+                    // Saved like any other route, so every node serves it
+                    RouteEntity testRoute = RouteEntity.builder()
+                            .id("test-route-" + System.currentTimeMillis())
+                            .uri("lb://global-service")
+                            .predicates("Path=/test/**")
+                            .filters("StripPrefix=0")
+                            .orderNum(999)
+                            .description("Test route created by diagnostics")
+                            .enabled(true)
+                            .serviceName("test")
+                            .build();
+
+                    routeService.saveRoute(testRoute);
+
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("status", "SUCCESS");
+                    result.put("message", "Test route created");
+                    result.put("route", testRoute);
+                    return result;
+                })
+                .subscribeOn(blockingScheduler)
+                .onErrorResume(e -> {
+                    log.error("Error creating test route", e);
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("status", "ERROR");
+                    result.put("error", e.getMessage());
+                    return Mono.just(result);
+                })
+                .map(ResponseEntity::ok);
+    }
+
+    private Map<String, Object> toPageResult(Page<RouteEntity> page) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("page", page.getNumber());
+        result.put("size", page.getSize());
+        result.put("total", page.getTotalElements());
+        result.put("routes", page.getContent());
+        return result;
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
-}
\ No newline at end of file
+}
@@ -6,10 +6,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.List;
-import java.util.Optional;
 
+/**
+ * Route administration; the blocking route service calls run on the blocking scheduler
+ */
 @Slf4j
 @RestController
 @RequestMapping("/admin/routes")
@@ -17,41 +21,48 @@ import java.util.Optional;
 public class RouteAdminController {
 
     private final RouteService routeService;
+    private final Scheduler blockingScheduler;
 
     @GetMapping
-    public ResponseEntity<List<RouteEntity>> getAllRoutes() {
-        List<RouteEntity> routes = routeService.getAllEnabledRoutes();
-        return ResponseEntity.ok(routes);
+    public Mono<ResponseEntity<List<RouteEntity>>> getAllRoutes() {
+        return Mono.fromCallable(routeService::getAllEnabledRoutes)
+                .subscribeOn(blockingScheduler)
+                .map(ResponseEntity::ok);
     }
 
     @GetMapping("/{routeId}")
-    public ResponseEntity<RouteEntity> getRoute(@PathVariable String routeId) {
-        Optional<RouteEntity> route = routeService.getRouteById(routeId);
-        return route.map(ResponseEntity::ok)
-                   .orElse(ResponseEntity.notFound().build());
+    public Mono<ResponseEntity<RouteEntity>> getRoute(@PathVariable String routeId) {
+        return Mono.fromCallable(() -> routeService.getRouteById(routeId))
+                .subscribeOn(blockingScheduler)
+                .map(route -> route.map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/service/{serviceName}")
-    public ResponseEntity<List<RouteEntity>> getRoutesByService(@PathVariable String serviceName) {
-        List<RouteEntity> routes = routeService.getRoutesByServiceName(serviceName);
-        return ResponseEntity.ok(routes);
+    public Mono<ResponseEntity<List<RouteEntity>>> getRoutesByService(@PathVariable String serviceName) {
+        return Mono.fromCallable(() -> routeService.getRoutesByServiceName(serviceName))
+                .subscribeOn(blockingScheduler)
+                .map(ResponseEntity::ok);
     }
 
     @PutMapping("/{routeId}/toggle")
-    public ResponseEntity<Void> toggleRoute(@PathVariable String routeId, @RequestParam boolean enabled) {
-        routeService.toggleRoute(routeId, enabled);
-        return ResponseEntity.ok().build();
+    public Mono<ResponseEntity<Void>> toggleRoute(@PathVariable String routeId, @RequestParam boolean enabled) {
+        return run(() -> routeService.toggleRoute(routeId, enabled));
     }
 
     @DeleteMapping("/{routeId}")
-    public ResponseEntity<Void> deleteRoute(@PathVariable String routeId) {
-        routeService.deleteRoute(routeId);
-        return ResponseEntity.ok().build();
+    public Mono<ResponseEntity<Void>> deleteRoute(@PathVariable String routeId) {
+        return run(() -> routeService.deleteRoute(routeId));
     }
 
     @PostMapping("/refresh")
-    public ResponseEntity<Void> refreshRoutes() {
-        routeService.refreshRoutes();
-        return ResponseEntity.ok().build();
+    public Mono<ResponseEntity<Void>> refreshRoutes() {
+        return run(routeService::refreshRoutes);
     }
-}
\ No newline at end of file
+
+    private Mono<ResponseEntity<Void>> run(Runnable action) {
+        return Mono.fromRunnable(action)
+                .subscribeOn(blockingScheduler)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
+    }
+}
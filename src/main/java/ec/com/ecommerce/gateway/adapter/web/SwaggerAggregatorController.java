@@ -1,16 +1,28 @@
 package ec.com.ecommerce.gateway.adapter.web;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.application.service.ETags;
+import ec.com.ecommerce.gateway.application.service.OpenApiSpecAggregator;
 import ec.com.ecommerce.gateway.application.service.SwaggerAggregatorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,42 +33,98 @@ import java.util.Map;
 public class SwaggerAggregatorController {
 
     private final SwaggerAggregatorService swaggerAggregatorService;
+    private final OpenApiSpecAggregator openApiSpecAggregator;
+    private final ObjectMapper objectMapper;
+    private final Scheduler blockingScheduler;
+
+    private volatile RenderedPage renderedPage;
 
     @GetMapping(produces = MediaType.TEXT_HTML_VALUE)
-    public ResponseEntity<String> getSwaggerAggregatorPage() {
-        List<String> servicesWithSwagger = swaggerAggregatorService.getServicesWithSwagger();
-        
-        String html = generateSwaggerAggregatorHTML(servicesWithSwagger);
-        return ResponseEntity.ok(html);
+    public ResponseEntity<byte[]> getSwaggerAggregatorPage(@RequestHeader HttpHeaders headers) {
+        RenderedPage page = renderedPage();
+        return conditional(headers, page.html(), page.htmlEtag(), new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8));
     }
 
     @GetMapping("/api/services")
-    public ResponseEntity<Map<String, Object>> getServicesInfo() {
-        List<String> servicesWithSwagger = swaggerAggregatorService.getServicesWithSwagger();
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("services", servicesWithSwagger);
-        response.put("count", servicesWithSwagger.size());
-        response.put("gatewayUrl", "/docs");
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getServicesInfo(@RequestHeader HttpHeaders headers) {
+        RenderedPage page = renderedPage();
+        return conditional(headers, page.json(), page.jsonEtag(), MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Merged OpenAPI document of all services; clients revalidate with If-None-Match
+     */
+    @GetMapping(value = "/api-docs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAggregatedApiDocs(@RequestHeader HttpHeaders headers) {
+        return openApiSpecAggregator.aggregatedSpec()
+                .map(spec -> conditional(headers, spec.body(), spec.etag(), MediaType.APPLICATION_JSON));
     }
 
+    /**
+     * Route generation reads and writes the route store, so it runs on the blocking scheduler
+     */
     @GetMapping("/generate")
-    public ResponseEntity<Map<String, String>> generateRoutes() {
+    public Mono<ResponseEntity<Map<String, String>>> generateRoutes() {
+        return Mono.fromRunnable(swaggerAggregatorService::generateAggregatedSwaggerRoutes)
+                .subscribeOn(blockingScheduler)
+                .then(Mono.fromSupplier(() -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("status", "success");
+                    response.put("message", "Swagger routes generated successfully");
+                    return ResponseEntity.ok(response);
+                }))
+                .onErrorResume(e -> {
+                    log.error("Error generating Swagger routes", e);
+                    Map<String, String> response = new HashMap<>();
+                    response.put("status", "error");
+                    response.put("message", "Error generating Swagger routes: " + e.getMessage());
+                    return Mono.just(ResponseEntity.status(500).body(response));
+                });
+    }
+
+    /**
+     * Page and service list rendered once per documented service list, which is replaced only when it changes
+     */
+    private RenderedPage renderedPage() {
+        List<String> services = swaggerAggregatorService.getServicesWithSwagger();
+        RenderedPage page = renderedPage;
+        if (page != null && page.services() == services) {
+            return page;
+        }
+
+        byte[] html = generateSwaggerAggregatorHTML(services).getBytes(StandardCharsets.UTF_8);
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("services", services);
+        info.put("count", services.size());
+        info.put("gatewayUrl", "/docs");
+        byte[] json;
         try {
-            swaggerAggregatorService.generateAggregatedSwaggerRoutes();
-            Map<String, String> response = new HashMap<>();
-            response.put("status", "success");
-            response.put("message", "Swagger routes generated successfully");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error generating Swagger routes", e);
-            Map<String, String> response = new HashMap<>();
-            response.put("status", "error");
-            response.put("message", "Error generating Swagger routes: " + e.getMessage());
-            return ResponseEntity.status(500).body(response);
+            json = objectMapper.writeValueAsBytes(info);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize services info", e);
         }
+
+        page = new RenderedPage(services, html, ETags.strong(html), json, ETags.strong(json));
+        renderedPage = page;
+        log.debug("Rendered swagger aggregator page for {} services", services.size());
+        return page;
+    }
+
+    private static ResponseEntity<byte[]> conditional(HttpHeaders headers, byte[] body, String etag, MediaType contentType) {
+        if (ETags.matches(headers.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(contentType)
+                .body(body);
+    }
+
+    private record RenderedPage(List<String> services, byte[] html, String htmlEtag, byte[] json, String jsonEtag) {
     }
 
     private String generateSwaggerAggregatorHTML(List<String> services) {
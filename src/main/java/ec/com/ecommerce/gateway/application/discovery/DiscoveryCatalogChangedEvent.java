@@ -0,0 +1,28 @@
+package ec.com.ecommerce.gateway.application.discovery;
+
+import java.util.List;
+
+/**
+ * Published by {@link DiscoveryCatalogWatcher} when the discovery catalog really changed.
+ * The initial event after startup or a leadership change lists every service as added.
+ *
+ * @param services all currently registered services
+ * @param changes  the services that were added, removed or changed since the previous catalog
+ * @param initial  whether there was no previous catalog to compare with
+ */
+public record DiscoveryCatalogChangedEvent(List<String> services, List<ServiceCatalogChange> changes, boolean initial) {
+
+    public List<String> servicesWith(ServiceCatalogChange.Type type) {
+        return changes.stream()
+                .filter(change -> change.type() == type)
+                .map(ServiceCatalogChange::serviceId)
+                .toList();
+    }
+
+    /**
+     * Whether services were added or removed, as opposed to only instances changing
+     */
+    public boolean hasMembershipChanges() {
+        return changes.stream().anyMatch(change -> change.type() != ServiceCatalogChange.Type.CHANGED);
+    }
+}
@@ -0,0 +1,139 @@
+package ec.com.ecommerce.gateway.application.discovery;
+
+import ec.com.ecommerce.gateway.application.leader.LeaderElection;
+import ec.com.ecommerce.gateway.application.leader.LeadershipGrantedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Polls the discovery catalog on the route generation leader and publishes a
+ * {@link DiscoveryCatalogChangedEvent} only when services or their instances changed.
+ * <p>
+ * The catalog is fingerprinted as the sorted instance list of every service. All checks run on one
+ * dedicated thread, so the fingerprint needs no synchronization.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiscoveryCatalogWatcher {
+
+    private final DiscoveryClient discoveryClient;
+    private final LeaderElection leaderElection;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${gateway.discovery.watch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.discovery.watch.interval:15s}")
+    private Duration interval;
+
+    private final Scheduler scheduler = Schedulers.newSingle("discovery-catalog-watcher");
+
+    private Map<String, List<String>> fingerprint;
+    private Disposable polling;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Discovery catalog watcher is disabled");
+            return;
+        }
+        log.info("Watching the discovery catalog every {}", interval);
+        polling = Flux.interval(Duration.ZERO, interval, scheduler)
+                .onBackpressureDrop()
+                .subscribe(tick -> check());
+    }
+
+    /**
+     * Check right away instead of waiting for the next poll, so a new leader generates routes promptly
+     */
+    @EventListener(LeadershipGrantedEvent.class)
+    public void onLeadershipGranted(LeadershipGrantedEvent event) {
+        if (polling != null) {
+            scheduler.schedule(this::check);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (polling != null) {
+            polling.dispose();
+        }
+        scheduler.dispose();
+    }
+
+    void check() {
+        if (!leaderElection.isLeader()) {
+            // Start from scratch when leadership comes back, changes made meanwhile were handled elsewhere
+            fingerprint = null;
+            return;
+        }
+
+        Map<String, List<String>> previous = fingerprint;
+        try {
+            Map<String, List<String>> current = fingerprintCatalog();
+            List<ServiceCatalogChange> changes = diff(previous != null ? previous : Map.of(), current);
+            if (previous != null && changes.isEmpty()) {
+                log.trace("Discovery catalog unchanged ({} services)", current.size());
+                return;
+            }
+
+            fingerprint = current;
+            log.info("Discovery catalog changed: {}", changes);
+            eventPublisher.publishEvent(new DiscoveryCatalogChangedEvent(List.copyOf(current.keySet()), changes, previous == null));
+        } catch (Exception e) {
+            // Compare against the old catalog again on the next poll so the change is not lost
+            fingerprint = previous;
+            log.error("Failed to process discovery catalog changes", e);
+        }
+    }
+
+    private Map<String, List<String>> fingerprintCatalog() {
+        Map<String, List<String>> catalog = new TreeMap<>();
+        for (String serviceId : discoveryClient.getServices()) {
+            catalog.put(serviceId, discoveryClient.getInstances(serviceId).stream()
+                    .map(DiscoveryCatalogWatcher::describe)
+                    .sorted()
+                    .toList());
+        }
+        return catalog;
+    }
+
+    private static String describe(ServiceInstance instance) {
+        return instance.getInstanceId() + "|" + instance.getHost() + ":" + instance.getPort() + "|" + instance.isSecure();
+    }
+
+    private static List<ServiceCatalogChange> diff(Map<String, List<String>> previous, Map<String, List<String>> current) {
+        List<ServiceCatalogChange> changes = new ArrayList<>();
+        current.forEach((serviceId, instances) -> {
+            List<String> before = previous.get(serviceId);
+            if (before == null) {
+                changes.add(new ServiceCatalogChange(serviceId, ServiceCatalogChange.Type.ADDED));
+            } else if (!before.equals(instances)) {
+                changes.add(new ServiceCatalogChange(serviceId, ServiceCatalogChange.Type.CHANGED));
+            }
+        });
+        previous.keySet().stream()
+                .filter(serviceId -> !current.containsKey(serviceId))
+                .forEach(serviceId -> changes.add(new ServiceCatalogChange(serviceId, ServiceCatalogChange.Type.REMOVED)));
+        return changes;
+    }
+}
@@ -0,0 +1,87 @@
+package ec.com.ecommerce.gateway.application.discovery;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Allow-list of discovered services whose documentation is reachable through the templated docs routes.
+ * Every node keeps its own copy, refreshed from the local discovery cache on each discovery heartbeat.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentedServiceCatalog {
+
+    private static final Set<String> INFRASTRUCTURE_SERVICES = Set.of("gateway-server", "discovery-server", "config-server");
+
+    private final DiscoveryClient discoveryClient;
+
+    private volatile Map<String, String> serviceIdsByName = Map.of();
+    private volatile List<String> docsNames = List.of();
+    private volatile List<String> serviceIds = List.of();
+
+    /**
+     * Name a service is documented under, e.g. orders for orders-service
+     */
+    public static String docsName(String serviceId) {
+        return serviceId.replaceAll("(?i)[-_]service$", "");
+    }
+
+    public static boolean isDocumented(String serviceId) {
+        return INFRASTRUCTURE_SERVICES.stream().noneMatch(serviceId::equalsIgnoreCase);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, HeartbeatEvent.class, DiscoveryCatalogChangedEvent.class})
+    public void refresh() {
+        try {
+            Map<String, String> byName = new TreeMap<>();
+            for (String serviceId : discoveryClient.getServices()) {
+                if (isDocumented(serviceId)) {
+                    byName.put(serviceId.toLowerCase(Locale.ROOT), serviceId);
+                    byName.putIfAbsent(docsName(serviceId).toLowerCase(Locale.ROOT), serviceId);
+                }
+            }
+            if (!byName.equals(serviceIdsByName)) {
+                serviceIdsByName = Map.copyOf(byName);
+                serviceIds = byName.values().stream().distinct().sorted().toList();
+                docsNames = serviceIds.stream().map(DocumentedServiceCatalog::docsName).distinct().sorted().toList();
+                log.info("Documented services: {}", docsNames);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh documented services, keeping {}", docsNames, e);
+        }
+    }
+
+    /**
+     * Service id for a docs name or service id taken from a request path, empty when the service is not allowed
+     */
+    public Optional<String> resolve(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(serviceIdsByName.get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Sorted docs names of all documented services
+     */
+    public List<String> docsNames() {
+        return docsNames;
+    }
+
+    /**
+     * Sorted ids of all documented services
+     */
+    public List<String> serviceIds() {
+        return serviceIds;
+    }
+}
@@ -0,0 +1,14 @@
+package ec.com.ecommerce.gateway.application.discovery;
+
+/**
+ * A single service that appeared in, disappeared from or changed its instances in the discovery catalog
+ */
+public record ServiceCatalogChange(String serviceId, Type type) {
+
+    public enum Type {
+        ADDED,
+        REMOVED,
+        /** The service is still registered but its instances changed */
+        CHANGED
+    }
+}
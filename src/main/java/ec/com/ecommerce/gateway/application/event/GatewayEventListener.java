@@ -1,36 +1,71 @@
 package ec.com.ecommerce.gateway.application.event;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
+import ec.com.ecommerce.gateway.application.service.RouteRefreshCoalescer;
 import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns gateway route events into route changes. Records are keyed by route id, so all events of a route arrive on
+ * one partition and are handed to the coalescer in order; the container runs one consumer per partition.
+ * Offsets are committed once a batch is queued: a route that cannot be applied is logged and lost on its own,
+ * the coalescer applies the rest of its window route by route.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class GatewayEventListener {
 
+    static final String LISTENER_ID = "gateway-listener";
+
     private final ObjectMapper objectMapper;
-    private final RouteRepository routeRepository;
+    private final RouteDefinitionConverter routeDefinitionConverter;
+    private final RouteRefreshCoalescer routeRefreshCoalescer;
+    private final KafkaListenerBackpressure backpressure;
+
+    @KafkaListener(id = LISTENER_ID, topics = "gateway-topic", batch = "true")
+    public void listen(List<String> messages) {
+        log.info("Received {} gateway messages", messages.size());
+
+        // Keep only the latest event per route id, in arrival order
+        Map<String, RouteEntity> latest = new LinkedHashMap<>();
+        for (String message : messages) {
+            RouteEntity entity = toRouteEntity(message);
+            if (entity != null) {
+                latest.remove(entity.getId());
+                latest.put(entity.getId(), entity);
+            }
+        }
+
+        if (!latest.isEmpty()) {
+            // Persisted off the consumer thread, unchanged routes are skipped there without a write or a refresh
+            routeRefreshCoalescer.submitAll(latest.values());
+            log.info("Queued {} route entities from {} gateway messages", latest.size(), messages.size());
+        }
+        backpressure.check();
+    }
 
-    @KafkaListener(id = "gateway-listener", topics = "gateway-topic")
-    public void listen(String message) {
-        log.info("Received message: {}", message);
+    private RouteEntity toRouteEntity(String message) {
+        log.debug("Received message: {}", message);
         try {
             GatewayRouteEvent event = objectMapper.readValue(message, GatewayRouteEvent.class);
-            RouteEntity entity = RouteEntity.builder()
+            return routeDefinitionConverter.ensureStructuredDefinitions(RouteEntity.builder()
                     .id(event.getId())
                     .uri(event.getUri())
                     .predicates(event.getPredicates())
                     .filters(event.getFilters())
-                    .build();
-            routeRepository.save(entity);
-            log.info("Saved route entity with id={} uri={}", entity.getId(), entity.getUri());
+                    .build());
         } catch (Exception e) {
             log.error("Failed to process gateway event message", e);
+            return null;
         }
     }
 }
@@ -1,47 +1,61 @@
 package ec.com.ecommerce.gateway.application.event;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.application.discovery.DiscoveryCatalogChangedEvent;
+import ec.com.ecommerce.gateway.application.discovery.ServiceCatalogChange;
+import ec.com.ecommerce.gateway.application.leader.LeaderElection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
-import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class GatewayRouteScanner {
 
-    private final DiscoveryClient discoveryClient;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    static final String GATEWAY_TOPIC = "gateway-topic";
+
+    private final RouteEventPublisher routeEventPublisher;
     private final ObjectMapper objectMapper;
+    private final LeaderElection leaderElection;
+
+    /**
+     * Publish route events for newly discovered services, or for every service on the initial catalog.
+     * The events go out as one pipelined batch, waiting for the acknowledgements; when any event failed the
+     * exception makes the discovery catalog watcher retry the change.
+     */
+    @EventListener(DiscoveryCatalogChangedEvent.class)
+    public void onCatalogChanged(DiscoveryCatalogChangedEvent event) {
+        if (!leaderElection.isLeader()) {
+            log.debug("Not the route generation leader, skipping service scan");
+            return;
+        }
+        List<String> services = event.initial() ? event.services() : event.servicesWith(ServiceCatalogChange.Type.ADDED);
+        log.info("Discovered services: {}", services);
 
-    @EventListener(ContextRefreshedEvent.class)
-    public void onApplicationEvent(ContextRefreshedEvent event) {
-        try {
-            List<String> services = discoveryClient.getServices();
-            log.info("Discovered services: {}", services);
-            for (String serviceId : services) {
-                try {
-                    GatewayRouteEvent routeEvent = new GatewayRouteEvent(
-                            serviceId,
-                            "lb://" + serviceId,
-                            "[{\"name\":\"Path\",\"args\":{\"pattern\":\"/" + serviceId + "/**\"}}]",
-                            "[]"
-                    );
-                    String payload = objectMapper.writeValueAsString(routeEvent);
-                    kafkaTemplate.send("gateway-topic", serviceId, payload);
-                    log.info("Published gateway-route event for service {}", serviceId);
-                } catch (Exception e) {
-                    log.error("Failed to publish route event for service {}", serviceId, e);
-                }
+        Map<String, GatewayRouteEvent> events = new LinkedHashMap<>();
+        for (String serviceId : services) {
+            try {
+                String predicates = objectMapper.writeValueAsString(List.of(
+                        Map.of("name", "Path", "args", Map.of("pattern", "/" + serviceId + "/**"))));
+                events.put(serviceId, new GatewayRouteEvent(serviceId, "lb://" + serviceId, predicates, "[]"));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to build route event for service " + serviceId, e);
             }
-        } catch (Exception e) {
-            log.error("Failed to scan services and publish gateway events", e);
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        RouteEventPublisher.PublishResult result = routeEventPublisher.publishAll(GATEWAY_TOPIC, events).join();
+        if (result.failed() > 0) {
+            throw new IllegalStateException(result.failed() + " of " + events.size() + " route events could not be published to "
+                    + result.topic());
         }
     }
 }
@@ -0,0 +1,95 @@
+package ec.com.ecommerce.gateway.application.event;
+
+import ec.com.ecommerce.gateway.application.service.RouteRefreshCoalescer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Pauses the route Kafka listeners while more than max-pending route changes wait to be persisted, and resumes
+ * them once the backlog has drained to half of that. Paused containers keep polling without fetching, so the
+ * consumers stay in their group and keep their partitions; in-flight work is bounded by max-pending plus
+ * one poll per consumer.
+ */
+@Slf4j
+@Component
+public class KafkaListenerBackpressure {
+
+    static final List<String> LISTENER_IDS = List.of(GatewayEventListener.LISTENER_ID, RouteConfigEventListener.LISTENER_ID);
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final RouteRefreshCoalescer routeRefreshCoalescer;
+    private final Counter pauses;
+    private final int maxPending;
+    private final Duration checkInterval;
+
+    private boolean paused;
+    private Disposable resumeCheck;
+
+    public KafkaListenerBackpressure(KafkaListenerEndpointRegistry registry, RouteRefreshCoalescer routeRefreshCoalescer,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${gateway.kafka.listener.max-pending:2000}") int maxPending,
+                                     @Value("${gateway.kafka.listener.backpressure-check-interval:200ms}") Duration checkInterval) {
+        this.registry = registry;
+        this.routeRefreshCoalescer = routeRefreshCoalescer;
+        this.pauses = Counter.builder("gateway.kafka.listener.pauses")
+                .description("Times the route listeners were paused because persistence fell behind")
+                .register(meterRegistry);
+        this.maxPending = maxPending;
+        this.checkInterval = checkInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        resumeCheck = Flux.interval(checkInterval)
+                .onBackpressureDrop()
+                .subscribe(tick -> check());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (resumeCheck != null) {
+            resumeCheck.dispose();
+        }
+    }
+
+    /**
+     * Pause or resume the listeners for the current backlog; called after every batch and periodically
+     */
+    public synchronized void check() {
+        int pending = routeRefreshCoalescer.pending();
+        if (!paused && pending >= maxPending) {
+            paused = true;
+            pauses.increment();
+            log.warn("{} route changes waiting to be persisted, pausing the route listeners", pending);
+            containers().forEach(MessageListenerContainer::pause);
+        } else if (paused && pending <= maxPending / 2) {
+            paused = false;
+            log.info("Route change backlog down to {}, resuming the route listeners", pending);
+            containers().forEach(MessageListenerContainer::resume);
+        }
+    }
+
+    synchronized boolean isPaused() {
+        return paused;
+    }
+
+    private List<MessageListenerContainer> containers() {
+        return LISTENER_IDS.stream()
+                .map(registry::getListenerContainer)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,38 @@
+package ec.com.ecommerce.gateway.application.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Route table delta broadcast to every gateway node over the route refresh bus
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteChangeMessage {
+
+    public enum Type {
+        /** Routes were saved or deleted; disabled routes must be removed */
+        CHANGE,
+        /** A single route was deleted */
+        DELETE,
+        /** Unknown changes, reload everything from the route store */
+        FULL
+    }
+
+    /** Set by the bus when publishing, so it is left out until then */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private long version;
+    private String originNodeId;
+    private Type type;
+    private List<RouteEntity> routes;
+    private List<String> deletedRouteIds;
+    private String routeId;
+}
@@ -1,7 +1,7 @@
 package ec.com.ecommerce.gateway.application.event;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import ec.com.ecommerce.gateway.application.service.RouteService;
+import ec.com.ecommerce.gateway.application.service.RouteRefreshCoalescer;
 import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,15 +10,23 @@ import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Turns route configuration messages into route changes, in partition order; see {@link GatewayEventListener}
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RouteConfigEventListener {
 
+    static final String LISTENER_ID = "route-config-listener";
+
     private final ObjectMapper objectMapper;
-    private final RouteService routeService;
+    private final RouteRefreshCoalescer routeRefreshCoalescer;
+    private final KafkaListenerBackpressure backpressure;
 
     @Value("${gateway.route.filter.ignore-webjars:true}")
     private boolean ignoreWebjars;
@@ -29,21 +37,42 @@ public class RouteConfigEventListener {
     @Value("${gateway.route.filter.ignored-paths:/webjars/**,/swagger-resources/**}")
     private String ignoredPaths;
 
-    @KafkaListener(id = "route-config-listener", topics = "gateway-route-config")
-    public void listen(String message) {
-        log.info("Received route configuration message: {}", message);
+    @KafkaListener(id = LISTENER_ID, topics = "gateway-route-config", batch = "true")
+    public void listen(List<String> messages) {
+        log.info("Received {} route configuration messages", messages.size());
+
+        // Keep only the latest configuration per route id, in arrival order
+        Map<String, RouteEntity> latest = new LinkedHashMap<>();
+        for (String message : messages) {
+            RouteEntity entity = toRouteEntity(message);
+            if (entity != null) {
+                latest.remove(entity.getId());
+                latest.put(entity.getId(), entity);
+            }
+        }
+
+        if (!latest.isEmpty()) {
+            // Saved with a single saveAll and refreshed together with the other changes of the current window
+            routeRefreshCoalescer.submitAll(latest.values());
+            log.info("Queued {} route configurations from {} messages", latest.size(), messages.size());
+        }
+        backpressure.check();
+    }
+
+    private RouteEntity toRouteEntity(String message) {
+        log.debug("Received route configuration message: {}", message);
         try {
             RouteConfigMessage routeConfig = objectMapper.readValue(message, RouteConfigMessage.class);
             
             // Filter out routes with empty predicates if configured
             if (ignoreEmptyPredicates && (routeConfig.getPredicates() == null || routeConfig.getPredicates().isEmpty())) {
                 log.debug("Ignoring route {} - empty predicates (filter enabled)", routeConfig.getRouteId());
-                return;
+                return null;
             }
             
             // Filter out routes with ignored paths (like webjars)
             if (shouldIgnoreRoute(routeConfig)) {
-                return;
+                return null;
             }
             
             // Filter out routes with empty predicate values if configured
@@ -54,12 +83,12 @@ public class RouteConfigEventListener {
                 if (hasEmptyPredicates) {
                     log.debug("Ignoring route {} - contains empty predicate values: {}", 
                             routeConfig.getRouteId(), routeConfig.getPredicates());
-                    return;
+                    return null;
                 }
             }
             
             // Convert RouteConfigMessage to RouteEntity
-            RouteEntity entity = RouteEntity.builder()
+            return RouteEntity.builder()
                     .id(routeConfig.getRouteId())
                     .uri(routeConfig.getUri())
                     .predicates(String.join(",", routeConfig.getPredicates() != null ? routeConfig.getPredicates() : List.of()))
@@ -70,12 +99,9 @@ public class RouteConfigEventListener {
                     .serviceName(routeConfig.getServiceName())
                     .build();
             
-            // Save the route using the service (which will trigger refresh)
-            routeService.saveRoute(entity);
-            log.info("Processed route configuration: {} for service {}", entity.getId(), entity.getServiceName());
-            
         } catch (Exception e) {
             log.error("Failed to process route configuration message: {}", message, e);
+            return null;
         }
     }
 
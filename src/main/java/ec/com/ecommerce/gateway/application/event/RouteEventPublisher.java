@@ -0,0 +1,129 @@
+package ec.com.ecommerce.gateway.application.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes route events to Kafka without waiting on each send.
+ * <p>
+ * All events of a call are handed to the producer at once, which batches them per partition (linger, batch size
+ * and compression are set in {@code KafkaConfig}), and the returned future completes when every send has been
+ * acknowledged or failed. Outcomes are counted in {@code gateway.route-events.sent}, acknowledgement times in
+ * {@code gateway.route-events.send.latency}, and unacknowledged sends in {@code gateway.route-events.in-flight}.
+ */
+@Slf4j
+@Component
+public class RouteEventPublisher {
+
+    static final String SENT = "gateway.route-events.sent";
+    static final String SEND_LATENCY = "gateway.route-events.send.latency";
+    static final String IN_FLIGHT = "gateway.route-events.in-flight";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public RouteEventPublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(IN_FLIGHT, inFlight, AtomicInteger::get)
+                .description("Route events sent to Kafka and not yet acknowledged")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publish one event
+     */
+    public CompletableFuture<PublishResult> publish(String topic, String key, Object event) {
+        return publishAll(topic, Map.of(key, event));
+    }
+
+    /**
+     * Publish events keyed by their message key, in iteration order, and complete once all sends are settled.
+     * The future never completes exceptionally: failures are logged and counted in the result.
+     */
+    public CompletableFuture<PublishResult> publishAll(String topic, Map<String, ?> eventsByKey) {
+        Counter published = counter(topic, "success");
+        Counter failed = counter(topic, "failure");
+        Timer latency = Timer.builder(SEND_LATENCY)
+                .description("Time from handing a route event to the producer until it is acknowledged")
+                .tag("topic", topic)
+                .register(meterRegistry);
+
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>(eventsByKey.size());
+        eventsByKey.forEach((key, event) -> sends.add(send(topic, key, event, latency)
+                .whenComplete((ok, e) -> (ok ? published : failed).increment())));
+
+        return CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    int failures = (int) sends.stream().filter(send -> !send.join()).count();
+                    PublishResult result = new PublishResult(topic, sends.size() - failures, failures);
+                    if (failures > 0) {
+                        log.warn("Published {} of {} route events to {}, {} failed", result.published(), sends.size(), topic, failures);
+                    } else {
+                        log.info("Published {} route events to {}", result.published(), topic);
+                    }
+                    return result;
+                });
+    }
+
+    private CompletableFuture<Boolean> send(String topic, String key, Object event, Timer latency) {
+        String payload;
+        try {
+            payload = event instanceof String text ? text : objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize route event {} for {}", key, topic, e);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        try {
+            return kafkaTemplate.send(topic, key, payload)
+                    .handle((result, e) -> {
+                        inFlight.decrementAndGet();
+                        if (e != null) {
+                            log.error("Failed to publish route event {} to {}", key, topic, e);
+                            return false;
+                        }
+                        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return true;
+                    });
+        } catch (RuntimeException e) {
+            // The producer throws straight away when metadata or buffer space is not available in time
+            inFlight.decrementAndGet();
+            log.error("Failed to publish route event {} to {}", key, topic, e);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    private Counter counter(String topic, String result) {
+        return Counter.builder(SENT)
+                .description("Route events sent to Kafka, by outcome")
+                .tag("topic", topic)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Outcome of a publish call
+     */
+    public record PublishResult(String topic, int published, int failed) {
+    }
+}
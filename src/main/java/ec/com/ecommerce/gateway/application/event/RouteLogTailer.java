@@ -0,0 +1,276 @@
+package ec.com.ecommerce.gateway.application.event;
+
+import ec.com.ecommerce.gateway.adapter.persistence.KafkaRouteDefinitionRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
+import ec.com.ecommerce.gateway.application.leader.LeadershipGrantedEvent;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Materializes the compacted route log into the {@link KafkaRouteDefinitionRepository} and keeps tailing it.
+ * <p>
+ * On startup every partition is read from the beginning up to the end offsets found at that moment, with
+ * startup waiting up to the bootstrap timeout for it, then the gateway routes are refreshed from the complete
+ * table; until then records only fill the route table. Later records are applied to the snapshot as deltas, a
+ * single changed route triggering a refresh scoped to it, and larger batches rebuild the snapshot once. The
+ * consumer is assigned all partitions without a consumer group, every node reads the whole log.
+ * <p>
+ * The route generation leader seeds the log from the database when it is elected, so existing route tables
+ * are carried over and writes made while no node was publishing are not lost.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gateway.routes.store", havingValue = "kafka")
+public class RouteLogTailer {
+
+    static final int MAX_INCREMENTAL_CHANGES = 32;
+
+    private final KafkaRouteDefinitionRepository repository;
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final KafkaAdmin kafkaAdmin;
+    private final NewTopic routesTopic;
+    private final RouteRepository routeRepository;
+    private final RouteDefinitionConverter converter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Scheduler blockingScheduler;
+    private final Duration bootstrapTimeout;
+    private final Duration pollTimeout;
+    private final boolean seedFromDatabase;
+
+    private final CompletableFuture<Void> caughtUp = new CompletableFuture<>();
+    private final Map<TopicPartition, Long> positions = new HashMap<>();
+    private volatile boolean running = true;
+    private volatile Consumer<String, String> consumer;
+    private Thread thread;
+
+    public RouteLogTailer(KafkaRouteDefinitionRepository repository, ConsumerFactory<String, String> consumerFactory,
+                          KafkaAdmin kafkaAdmin, @Qualifier("gatewayRoutesTopic") NewTopic routesTopic,
+                          RouteRepository routeRepository, RouteDefinitionConverter converter,
+                          ApplicationEventPublisher eventPublisher, Scheduler blockingScheduler,
+                          @Value("${gateway.routes.kafka.bootstrap-timeout:30s}") Duration bootstrapTimeout,
+                          @Value("${gateway.routes.kafka.poll-timeout:1s}") Duration pollTimeout,
+                          @Value("${gateway.routes.kafka.seed-from-database:true}") boolean seedFromDatabase) {
+        this.repository = repository;
+        this.consumerFactory = consumerFactory;
+        this.kafkaAdmin = kafkaAdmin;
+        this.routesTopic = routesTopic;
+        this.routeRepository = routeRepository;
+        this.converter = converter;
+        this.eventPublisher = eventPublisher;
+        this.blockingScheduler = blockingScheduler;
+        this.bootstrapTimeout = bootstrapTimeout;
+        this.pollTimeout = pollTimeout;
+        this.seedFromDatabase = seedFromDatabase;
+    }
+
+    @PostConstruct
+    void start() {
+        // The admin only creates declared topics once all beans exist, which is after the bootstrap below
+        try {
+            kafkaAdmin.createOrModifyTopics(routesTopic);
+        } catch (RuntimeException e) {
+            log.warn("Could not create route log topic {}: {}", routesTopic.name(), e.getMessage());
+        }
+        thread = Thread.ofPlatform().daemon().name("gateway-route-log").start(this::run);
+        try {
+            caughtUp.get(bootstrapTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Route log {} not read up to its end within {}, serving the last known routes meanwhile",
+                    repository.getTopic(), bootstrapTimeout);
+        } catch (ExecutionException e) {
+            log.warn("Reading route log {} failed, serving the last known routes meanwhile", repository.getTopic(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        Consumer<String, String> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (thread != null) {
+            thread.join(pollTimeout.multipliedBy(2).toMillis());
+        }
+    }
+
+    /**
+     * Align the route log with the routes table, once this node reads the complete log
+     */
+    @EventListener(LeadershipGrantedEvent.class)
+    public void onLeadershipGranted(LeadershipGrantedEvent event) {
+        if (!seedFromDatabase) {
+            return;
+        }
+        Mono.fromFuture(caughtUp.copy())
+                .then(Mono.fromRunnable(this::seedFromDatabase).subscribeOn(blockingScheduler))
+                .subscribe(null, e -> log.error("Failed to seed route log {} from the database", repository.getTopic(), e));
+    }
+
+    void seedFromDatabase() {
+        List<RouteEntity> stored = routeRepository.findAll();
+        Map<String, RouteEntity> logged = repository.materializedRoutes().stream()
+                .collect(Collectors.toMap(RouteEntity::getId, Function.identity()));
+
+        List<RouteEntity> changed = new ArrayList<>();
+        for (RouteEntity route : stored) {
+            RouteEntity current = logged.remove(route.getId());
+            if (current == null || !converter.rowHash(current).equals(converter.rowHash(route))) {
+                changed.add(route);
+            }
+        }
+        repository.writeThrough(changed, logged.keySet());
+        log.info("Seeded route log {} from the database: {} routes written, {} removed",
+                repository.getTopic(), changed.size(), logged.size());
+        if (!changed.isEmpty() || !logged.isEmpty()) {
+            repository.invalidate();
+            eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (Consumer<String, String> current = createConsumer()) {
+                consumer = current;
+                tail(current);
+            } catch (WakeupException e) {
+                if (running) {
+                    log.warn("Route log consumer woken up unexpectedly, reconnecting");
+                }
+            } catch (Exception e) {
+                log.error("Failed to read route log {}, retrying", repository.getTopic(), e);
+                pause(Duration.ofSeconds(5));
+            } finally {
+                consumer = null;
+            }
+        }
+    }
+
+    private void tail(Consumer<String, String> current) {
+        String topic = repository.getTopic();
+        List<PartitionInfo> partitionInfos = current.partitionsFor(topic);
+        if (partitionInfos == null || partitionInfos.isEmpty()) {
+            throw new IllegalStateException("Route log topic " + topic + " does not exist");
+        }
+        List<TopicPartition> partitions = partitionInfos.stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .toList();
+        current.assign(partitions);
+        // Resume where the previous consumer stopped, everything else is read from the beginning
+        for (TopicPartition partition : partitions) {
+            Long position = positions.get(partition);
+            if (position != null) {
+                current.seek(partition, position);
+            } else {
+                current.seekToBeginning(List.of(partition));
+            }
+        }
+
+        Map<TopicPartition, Long> remaining = new HashMap<>();
+        if (!caughtUp.isDone()) {
+            remaining.putAll(current.endOffsets(partitions));
+        }
+
+        while (running) {
+            ConsumerRecords<String, String> records = current.poll(pollTimeout);
+            if (caughtUp.isDone()) {
+                apply(records);
+            } else {
+                records.forEach(record -> repository.materialize(record.key(), record.value()));
+                remaining.entrySet().removeIf(end -> current.position(end.getKey()) >= end.getValue());
+                if (remaining.isEmpty()) {
+                    repository.markMaterialized();
+                    eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+                    caughtUp.complete(null);
+                }
+            }
+            for (TopicPartition partition : partitions) {
+                positions.put(partition, current.position(partition));
+            }
+        }
+    }
+
+    private void apply(ConsumerRecords<String, String> records) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (ConsumerRecord<String, String> record : records) {
+            if (repository.materialize(record.key(), record.value())) {
+                changed.add(record.key());
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        // Every delta copies the snapshot, past a few changes one reload from the route table is cheaper
+        boolean applied = changed.size() <= MAX_INCREMENTAL_CHANGES
+                && changed.stream().allMatch(repository::applyToSnapshot);
+        if (!applied) {
+            repository.invalidate();
+            eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+        } else if (changed.size() == 1) {
+            eventPublisher.publishEvent(new RefreshRoutesEvent(this,
+                    Map.of(RouteSnapshotRepository.ROUTE_ID_METADATA, changed.iterator().next())));
+        } else {
+            eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+        }
+        log.info("Applied {} route log records, {} routes changed", records.count(), changed.size());
+    }
+
+    private Consumer<String, String> createConsumer() {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // An auto-created topic would not be compacted
+        properties.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+        return consumerFactory.createConsumer(null, "gateway-route-log", null, properties);
+    }
+
+    private void pause(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
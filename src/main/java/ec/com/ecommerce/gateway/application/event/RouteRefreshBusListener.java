@@ -0,0 +1,162 @@
+package ec.com.ecommerce.gateway.application.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
+import ec.com.ecommerce.gateway.application.service.RouteRefreshBus;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies route table deltas published by other gateway nodes on the route refresh bus.
+ * Versions are applied in sequence; a gap (missed message) triggers a full reload, and a periodic
+ * version check repairs nodes that missed the last message of a burst.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RouteRefreshBusListener {
+
+    private final RouteRefreshBus routeRefreshBus;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RouteSnapshotRepository routeSnapshotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${gateway.routes.refresh-bus.gap-check-interval:30s}")
+    private Duration gapCheckInterval;
+
+    private long lastAppliedVersion = -1;
+    private long versionAtLastCheck = -1;
+    private Disposable subscription;
+    private Disposable gapCheck;
+
+    @PostConstruct
+    void start() {
+        if (!routeRefreshBus.isEnabled()) {
+            log.info("Route refresh bus is disabled");
+            return;
+        }
+
+        subscription = redisTemplate.listenToChannel(routeRefreshBus.getChannel())
+                .mapNotNull(message -> readMessage(message.getMessage()))
+                .doOnNext(this::onMessage)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)))
+                .subscribe(null, e -> log.error("Route refresh bus subscription stopped", e));
+
+        gapCheck = Flux.interval(gapCheckInterval)
+                .concatMap(tick -> routeRefreshBus.currentVersion())
+                .doOnNext(this::checkForGap)
+                .onErrorContinue((e, tick) -> log.warn("Route refresh bus version check failed", e))
+                .subscribe();
+        log.info("Listening for route changes on channel {} as node {}", routeRefreshBus.getChannel(), routeRefreshBus.getNodeId());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (gapCheck != null) {
+            gapCheck.dispose();
+        }
+    }
+
+    synchronized void onMessage(RouteChangeMessage message) {
+        long version = message.getVersion();
+        if (lastAppliedVersion >= 0 && version <= lastAppliedVersion) {
+            log.debug("Ignoring route change version {} (already at {})", version, lastAppliedVersion);
+            return;
+        }
+
+        boolean missedVersions = lastAppliedVersion >= 0 && version > lastAppliedVersion + 1;
+        lastAppliedVersion = version;
+
+        try {
+            if (missedVersions) {
+                log.warn("Missed route changes before version {}, reloading all routes", version);
+                fullRefresh();
+            } else if (!routeRefreshBus.getNodeId().equals(message.getOriginNodeId())) {
+                apply(message);
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply route change version {}, reloading all routes", version, e);
+            fullRefresh();
+        }
+    }
+
+    /**
+     * Repair when a version seen at the previous check still has not arrived,
+     * so messages that are merely in flight do not trigger a reload
+     */
+    synchronized void checkForGap(long currentVersion) {
+        if (lastAppliedVersion < 0) {
+            lastAppliedVersion = currentVersion;
+        } else if (lastAppliedVersion < versionAtLastCheck) {
+            log.warn("Route refresh bus reached version {} but this node applied {}, reloading all routes",
+                    versionAtLastCheck, lastAppliedVersion);
+            lastAppliedVersion = Math.max(lastAppliedVersion, currentVersion);
+            fullRefresh();
+        }
+        versionAtLastCheck = currentVersion;
+    }
+
+    private void apply(RouteChangeMessage message) {
+        log.info("Applying route change {} version {} from node {}", message.getType(), message.getVersion(), message.getOriginNodeId());
+        switch (message.getType()) {
+            case CHANGE -> {
+                List<RouteEntity> routes = message.getRoutes() != null ? message.getRoutes() : List.of();
+                List<String> deletedRouteIds = message.getDeletedRouteIds() != null ? message.getDeletedRouteIds() : List.of();
+                if (!routes.stream().allMatch(routeSnapshotRepository::applyChange)
+                        || !deletedRouteIds.stream().allMatch(routeSnapshotRepository::applyDelete)) {
+                    fullRefresh();
+                } else if (routes.size() == 1 && deletedRouteIds.isEmpty()) {
+                    scopedRefresh(routes.get(0).getId());
+                } else {
+                    eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+                }
+            }
+            case DELETE -> {
+                if (routeSnapshotRepository.applyDelete(message.getRouteId())) {
+                    scopedRefresh(message.getRouteId());
+                } else {
+                    fullRefresh();
+                }
+            }
+            case FULL -> fullRefresh();
+        }
+    }
+
+    private void scopedRefresh(String routeId) {
+        eventPublisher.publishEvent(new RefreshRoutesEvent(this,
+                Map.of(RouteSnapshotRepository.ROUTE_ID_METADATA, routeId)));
+    }
+
+    private void fullRefresh() {
+        routeSnapshotRepository.invalidate();
+        eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+    }
+
+    private RouteChangeMessage readMessage(String payload) {
+        try {
+            return objectMapper.readValue(payload, RouteChangeMessage.class);
+        } catch (Exception e) {
+            log.error("Ignoring unreadable route change message: {}", payload, e);
+            return null;
+        }
+    }
+}
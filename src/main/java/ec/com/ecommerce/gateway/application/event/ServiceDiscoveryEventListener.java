@@ -1,10 +1,9 @@
 package ec.com.ecommerce.gateway.application.event;
 
+import ec.com.ecommerce.gateway.application.discovery.DiscoveryCatalogChangedEvent;
 import ec.com.ecommerce.gateway.application.service.SwaggerAggregatorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
-import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
@@ -17,35 +16,15 @@ import org.springframework.stereotype.Component;
 public class ServiceDiscoveryEventListener {
 
     private final SwaggerAggregatorService swaggerAggregatorService;
-    private boolean initialRouteGeneration = false;
-    private int heartbeatCounter = 0;
 
-    @EventListener(ContextRefreshedEvent.class)
-    public void onContextRefreshed(ContextRefreshedEvent event) {
-        if (!initialRouteGeneration) {
-            log.info("Gateway context refreshed, generating initial Swagger routes");
-            swaggerAggregatorService.generateAggregatedSwaggerRoutes();
-            initialRouteGeneration = true;
+    @EventListener(DiscoveryCatalogChangedEvent.class)
+    public void onCatalogChanged(DiscoveryCatalogChangedEvent event) {
+        // The templated docs routes follow the catalog by themselves, so they only need to exist
+        if (!event.initial()) {
+            log.debug("Discovery catalog changed, Swagger routes are unaffected");
+            return;
         }
+        log.info("Reconciling Swagger routes");
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
     }
-
-    @EventListener(HeartbeatEvent.class)
-    public void onHeartbeat(HeartbeatEvent event) {
-        // Heartbeat events are frequent, so we'll check periodically
-        // but not on every heartbeat to avoid performance issues
-        if (shouldUpdateRoutes()) {
-            log.debug("Checking for new services and updating Swagger routes");
-            swaggerAggregatorService.generateAggregatedSwaggerRoutes();
-        }
-    }
-
-    private boolean shouldUpdateRoutes() {
-        // Update every 10th heartbeat
-        heartbeatCounter++;
-        if (heartbeatCounter >= 10) {
-            heartbeatCounter = 0;
-            return true;
-        }
-        return false;
-    }
-}
\ No newline at end of file
+}
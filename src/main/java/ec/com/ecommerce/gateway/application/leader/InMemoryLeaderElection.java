@@ -0,0 +1,42 @@
+package ec.com.ecommerce.gateway.application.leader;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-local leader election for single node setups and tests; leadership is granted and revoked explicitly
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class InMemoryLeaderElection implements LeaderElection {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicLong tokens = new AtomicLong();
+
+    private volatile OptionalLong token = OptionalLong.empty();
+
+    @Override
+    public OptionalLong currentToken() {
+        return token;
+    }
+
+    /**
+     * Become the leader under a new fencing token
+     */
+    public long grant() {
+        long granted = tokens.incrementAndGet();
+        token = OptionalLong.of(granted);
+        log.info("Granted route generation leadership with fencing token {}", granted);
+        eventPublisher.publishEvent(new LeadershipGrantedEvent(granted));
+        return granted;
+    }
+
+    public void revoke() {
+        token = OptionalLong.empty();
+        log.info("Revoked route generation leadership");
+    }
+}
@@ -0,0 +1,28 @@
+package ec.com.ecommerce.gateway.application.leader;
+
+import java.util.OptionalLong;
+
+/**
+ * Elects the single gateway node that scans discovery and generates routes.
+ * Every lease carries a fencing token that grows with each new leader, so work started
+ * under an old lease can be recognised and discarded.
+ */
+public interface LeaderElection {
+
+    /**
+     * Fencing token of the lease this node currently holds, empty when it is not the leader
+     */
+    OptionalLong currentToken();
+
+    default boolean isLeader() {
+        return currentToken().isPresent();
+    }
+
+    /**
+     * Whether this node still holds the lease identified by the token
+     */
+    default boolean holdsLease(long token) {
+        OptionalLong current = currentToken();
+        return current.isPresent() && current.getAsLong() == token;
+    }
+}
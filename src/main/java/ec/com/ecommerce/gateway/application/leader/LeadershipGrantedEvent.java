@@ -0,0 +1,7 @@
+package ec.com.ecommerce.gateway.application.leader;
+
+/**
+ * Published when this node becomes the route generation leader
+ */
+public record LeadershipGrantedEvent(long fencingToken) {
+}
@@ -0,0 +1,151 @@
+package ec.com.ecommerce.gateway.application.leader;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Leader election over a Redis lease.
+ * <p>
+ * The lease key holds {@code nodeId:token} with a TTL. A node without a lease takes a free one under a new
+ * token from a counter key; the holder renews it before it expires. Locally the lease is trusted only until
+ * the TTL, counted from when the renewal was sent and minus a safety margin, so a node that cannot reach
+ * Redis stops acting as leader before another node can take over.
+ * <p>
+ * {@link LeadershipGrantedEvent} listeners run on the blocking scheduler, never on the Redis I/O thread,
+ * and renewals do not wait for them.
+ */
+@Slf4j
+public class RedisLeaderElection implements LeaderElection, AutoCloseable {
+
+    private static final RedisScript<Long> ACQUIRE_OR_RENEW = RedisScript.of("""
+            local current = redis.call('GET', KEYS[1])
+            if not current then
+                local token = redis.call('INCR', KEYS[2])
+                redis.call('SET', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2])
+                return token
+            end
+            local owner = ARGV[1] .. ':'
+            if string.sub(current, 1, #owner) == owner then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+                return tonumber(string.sub(current, #owner + 1))
+            end
+            return -1
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private record Lease(long token, Instant validUntil) {
+    }
+
+    private final ReactiveStringRedisTemplate redis;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String leaseKey;
+    private final String tokenKey;
+    private final Duration leaseTtl;
+    private final Duration renewInterval;
+    private final Clock clock;
+    private final Scheduler blockingScheduler;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Lease lease;
+    private Disposable renewal;
+
+    public RedisLeaderElection(ReactiveStringRedisTemplate redis, ApplicationEventPublisher eventPublisher,
+                               String keyPrefix, Duration leaseTtl, Duration renewInterval, Clock clock,
+                               Scheduler blockingScheduler) {
+        if (renewInterval.compareTo(leaseTtl) >= 0) {
+            throw new IllegalArgumentException("Lease renew interval " + renewInterval + " must be shorter than the lease TTL " + leaseTtl);
+        }
+        this.redis = redis;
+        this.eventPublisher = eventPublisher;
+        this.leaseKey = keyPrefix + ":lease";
+        this.tokenKey = keyPrefix + ":token";
+        this.leaseTtl = leaseTtl;
+        this.renewInterval = renewInterval;
+        this.clock = clock;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    public void start() {
+        log.info("Starting route generation leader election as node {} (lease {}, renewed every {})", nodeId, leaseTtl, renewInterval);
+        renewal = Flux.interval(Duration.ZERO, renewInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> acquireOrRenew()
+                        .onErrorResume(e -> {
+                            log.warn("Failed to renew route generation lease", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public OptionalLong currentToken() {
+        Lease current = lease;
+        if (current == null || !clock.instant().isBefore(current.validUntil())) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(current.token());
+    }
+
+    @Override
+    public void close() {
+        if (renewal != null) {
+            renewal.dispose();
+        }
+        Lease current = lease;
+        lease = null;
+        if (current != null) {
+            redis.execute(RELEASE, List.of(leaseKey), List.of(nodeId + ":" + current.token()))
+                    .next()
+                    .block(renewInterval);
+            log.info("Released route generation lease {}", current.token());
+        }
+    }
+
+    Mono<Long> acquireOrRenew() {
+        Instant sentAt = clock.instant();
+        return redis.execute(ACQUIRE_OR_RENEW, List.of(leaseKey, tokenKey), List.of(nodeId, String.valueOf(leaseTtl.toMillis())))
+                .next()
+                .doOnNext(token -> onLease(token, sentAt));
+    }
+
+    private void onLease(long token, Instant sentAt) {
+        Lease previous = lease;
+        if (token < 0) {
+            if (previous != null) {
+                log.warn("Lost route generation lease {} to another node", previous.token());
+            }
+            lease = null;
+            return;
+        }
+
+        lease = new Lease(token, sentAt.plus(leaseTtl).minus(leaseTtl.dividedBy(5)));
+        if (previous == null || previous.token() != token) {
+            log.info("Acquired route generation leadership with fencing token {}", token);
+            Mono.fromRunnable(() -> eventPublisher.publishEvent(new LeadershipGrantedEvent(token)))
+                    .subscribeOn(blockingScheduler)
+                    .subscribe(null, e -> log.error("Failed to handle route generation leadership {}", token, e));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ec.com.ecommerce.gateway.application.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the lag of the route listener consumer groups as {@code gateway.kafka.consumer.lag{group,topic}}:
+ * the records between the committed offsets and the end of each partition, summed per topic. Measured from
+ * the broker, so it is the same on every node and also visible while the listeners are paused.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gateway.kafka.lag-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class KafkaConsumerLagMonitor {
+
+    static final String LAG = "gateway.kafka.consumer.lag";
+
+    private final KafkaAdmin kafkaAdmin;
+    private final MeterRegistry meterRegistry;
+    private final List<String> groups;
+    private final Duration interval;
+    private final ConcurrentMap<String, AtomicLong> lags = new ConcurrentHashMap<>();
+
+    private AdminClient adminClient;
+    private Disposable polling;
+
+    public KafkaConsumerLagMonitor(KafkaAdmin kafkaAdmin, MeterRegistry meterRegistry,
+                                   @Value("${gateway.kafka.lag-monitor.groups:gateway-listener,route-config-listener}") List<String> groups,
+                                   @Value("${gateway.kafka.lag-monitor.interval:30s}") Duration interval) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.meterRegistry = meterRegistry;
+        this.groups = groups;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    void start() {
+        adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        polling = Flux.interval(interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> update())
+                .subscribe(null, e -> log.error("Consumer lag monitor stopped", e));
+        log.info("Monitoring consumer lag of {} every {}", groups, interval);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (polling != null) {
+            polling.dispose();
+        }
+        if (adminClient != null) {
+            adminClient.close(Duration.ofSeconds(5));
+        }
+    }
+
+    /**
+     * Waits on the admin client's futures without holding a thread, so an unreachable broker ties up nothing
+     * but the pending requests
+     */
+    Mono<Void> update() {
+        return Flux.fromIterable(groups)
+                .concatMap(group -> lagByTopic(group)
+                        .timeout(interval)
+                        .doOnNext(topics -> topics.forEach((topic, lag) -> gauge(group, topic).set(lag)))
+                        .onErrorResume(e -> {
+                            log.warn("Could not measure the lag of consumer group {}: {}", group, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private Mono<Map<String, Long>> lagByTopic(String group) {
+        return Mono.fromCompletionStage(() -> adminClient.listConsumerGroupOffsets(group)
+                        .partitionsToOffsetAndMetadata()
+                        .toCompletionStage())
+                .flatMap(offsets -> {
+                    Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>(offsets);
+                    committed.values().removeIf(Objects::isNull);
+                    if (committed.isEmpty()) {
+                        return Mono.just(Map.of());
+                    }
+                    return Mono.fromCompletionStage(() -> adminClient.listOffsets(committed.keySet().stream()
+                                            .collect(Collectors.toMap(partition -> partition, partition -> OffsetSpec.latest())))
+                                    .all()
+                                    .toCompletionStage())
+                            .map(ends -> lag(committed, ends));
+                });
+    }
+
+    private static Map<String, Long> lag(Map<TopicPartition, OffsetAndMetadata> committed,
+                                         Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends) {
+        Map<String, Long> lag = new HashMap<>();
+        committed.forEach((partition, offset) -> {
+            ListOffsetsResult.ListOffsetsResultInfo end = ends.get(partition);
+            if (end != null) {
+                lag.merge(partition.topic(), Math.max(0, end.offset() - offset.offset()), Long::sum);
+            }
+        });
+        return lag;
+    }
+
+    private AtomicLong gauge(String group, String topic) {
+        return lags.computeIfAbsent(group + "/" + topic, key -> {
+            AtomicLong lag = new AtomicLong();
+            Gauge.builder(LAG, lag, AtomicLong::get)
+                    .description("Records not yet consumed by the consumer group, summed over the topic's partitions")
+                    .tag("group", group)
+                    .tag("topic", topic)
+                    .register(meterRegistry);
+            return lag;
+        });
+    }
+}
@@ -0,0 +1,197 @@
+package ec.com.ecommerce.gateway.application.metrics;
+
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteTableChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Per-route data plane metrics: latency timer, responses by status class and request/response bytes,
+ * tagged with the route id and the target service.
+ * <p>
+ * Meters are resolved once per route and cached, so recording a request does not go through the registry.
+ * Latency percentiles are computed client side; the bucketed percentile histogram adds some seventy series
+ * per route and service, so it is only published with {@code gateway.metrics.routes.histogram=true}.
+ * Meters of deleted routes are removed again.
+ */
+@Slf4j
+@Component
+public class RouteMetrics {
+
+    static final String LATENCY = "gateway.route.latency";
+    static final String RESPONSES = "gateway.route.responses";
+    static final String REQUEST_BYTES = "gateway.route.request.bytes";
+    static final String RESPONSE_BYTES = "gateway.route.response.bytes";
+
+    private static final String[] STATUS_CLASSES = {"OTHER", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final MeterRegistry meterRegistry;
+    private final RouteSnapshotRepository routeSnapshotRepository;
+    private final ConcurrentMap<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    private final double[] percentiles;
+    private final boolean histogram;
+
+    private Disposable routeDeletions;
+
+    public RouteMetrics(MeterRegistry meterRegistry, RouteSnapshotRepository routeSnapshotRepository,
+                        @Value("${gateway.metrics.routes.percentiles:0.5,0.95,0.99}") double[] percentiles,
+                        @Value("${gateway.metrics.routes.histogram:false}") boolean histogram) {
+        this.meterRegistry = meterRegistry;
+        this.routeSnapshotRepository = routeSnapshotRepository;
+        this.percentiles = percentiles;
+        this.histogram = histogram;
+    }
+
+    @PostConstruct
+    void start() {
+        routeDeletions = routeSnapshotRepository.changes()
+                .filter(change -> change.operation() == RouteTableChange.Operation.DELETE)
+                .subscribe(change -> remove(change.routeId()));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (routeDeletions != null) {
+            routeDeletions.dispose();
+        }
+    }
+
+    /**
+     * Record one completed exchange. A status of 0 means no status was set (cancelled or failed exchange).
+     */
+    public void record(String routeId, String service, int status, long requestBytes, long responseBytes, long durationNanos) {
+        RouteMeters route = meters.computeIfAbsent(routeId, id -> new RouteMeters(id, service));
+        route.latency.record(durationNanos, TimeUnit.NANOSECONDS);
+        route.responses(statusClass(status)).increment();
+        if (requestBytes > 0) {
+            route.requestBytes.record(requestBytes);
+        }
+        if (responseBytes > 0) {
+            route.responseBytes.record(responseBytes);
+        }
+    }
+
+    /**
+     * Statistics of all routes that served traffic, ordered by the given criterion and limited to the top entries
+     */
+    public List<RouteStats> top(RouteStats.Sort sort, int limit) {
+        Comparator<RouteStats> order = switch (sort) {
+            case REQUESTS -> Comparator.comparingLong(RouteStats::requests);
+            case LATENCY -> Comparator.comparingDouble(RouteStats::p99Millis);
+            case ERRORS -> Comparator.comparingLong(RouteStats::serverErrors);
+        };
+        return meters.values().stream()
+                .map(RouteMeters::stats)
+                .sorted(order.reversed().thenComparing(RouteStats::routeId))
+                .limit(Math.max(limit, 0))
+                .toList();
+    }
+
+    void remove(String routeId) {
+        RouteMeters removed = meters.remove(routeId);
+        if (removed != null) {
+            removed.all().forEach(meterRegistry::remove);
+            log.debug("Removed metrics of deleted route {}", routeId);
+        }
+    }
+
+    private static int statusClass(int status) {
+        int statusClass = status / 100;
+        return statusClass >= 1 && statusClass <= 5 ? statusClass : 0;
+    }
+
+    private static double percentile(ValueAtPercentile[] values, double percentile) {
+        for (ValueAtPercentile value : values) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private final class RouteMeters {
+
+        private final String routeId;
+        private final String service;
+        private final Timer latency;
+        private final Counter[] responses = new Counter[STATUS_CLASSES.length];
+        private final DistributionSummary requestBytes;
+        private final DistributionSummary responseBytes;
+
+        private RouteMeters(String routeId, String service) {
+            this.routeId = routeId;
+            this.service = service;
+            this.latency = Timer.builder(LATENCY)
+                    .tag("route", routeId)
+                    .tag("service", service)
+                    .publishPercentiles(percentiles)
+                    .publishPercentileHistogram(histogram)
+                    .register(meterRegistry);
+            this.requestBytes = DistributionSummary.builder(REQUEST_BYTES)
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .tag("service", service)
+                    .register(meterRegistry);
+            this.responseBytes = DistributionSummary.builder(RESPONSE_BYTES)
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .tag("service", service)
+                    .register(meterRegistry);
+        }
+
+        private Counter responses(int statusClass) {
+            Counter counter = responses[statusClass];
+            if (counter == null) {
+                counter = Counter.builder(RESPONSES)
+                        .tag("route", routeId)
+                        .tag("service", service)
+                        .tag("status", STATUS_CLASSES[statusClass])
+                        .register(meterRegistry);
+                // Registration is idempotent, so a racing thread ends up with the same counter
+                responses[statusClass] = counter;
+            }
+            return counter;
+        }
+
+        private long count(int statusClass) {
+            Counter counter = responses[statusClass];
+            return counter != null ? (long) counter.count() : 0;
+        }
+
+        private RouteStats stats() {
+            var snapshot = latency.takeSnapshot();
+            double p99 = percentile(snapshot.percentileValues(), 0.99);
+            return new RouteStats(routeId, service, snapshot.count(),
+                    count(2), count(4), count(5),
+                    snapshot.mean(TimeUnit.MILLISECONDS),
+                    Double.isNaN(p99) ? snapshot.max(TimeUnit.MILLISECONDS) : p99,
+                    snapshot.max(TimeUnit.MILLISECONDS),
+                    requestBytes.totalAmount(), responseBytes.totalAmount());
+        }
+
+        private List<Meter> all() {
+            return Stream.<Meter>concat(Stream.of(latency, requestBytes, responseBytes), Stream.of(responses))
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ec.com.ecommerce.gateway.application.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Records latency, status class and bytes of every routed exchange in {@link RouteMetrics}.
+ * Request bytes are taken from the Content-Length header; response bytes are counted as they are written.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    private final RouteMetrics routeMetrics;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        long start = System.nanoTime();
+        CountingResponse response = new CountingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(response).build())
+                .doOnSuccess(done -> record(route, exchange, response, start, status(response)))
+                .doOnError(error -> record(route, exchange, response, start, errorStatus(error)))
+                .doOnCancel(() -> record(route, exchange, response, start, status(response)));
+    }
+
+    /**
+     * Runs right before the response write filter, so the latency covers the proxied call and the response
+     * write but not the global filters ordered ahead of it
+     */
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private void record(Route route, ServerWebExchange exchange, CountingResponse response, long start, int status) {
+        routeMetrics.record(route.getId(), service(route.getUri()), status,
+                exchange.getRequest().getHeaders().getContentLength(),
+                response.bytesWritten,
+                System.nanoTime() - start);
+    }
+
+    private static int status(ServerHttpResponse response) {
+        HttpStatusCode status = response.getStatusCode();
+        return status != null ? status.value() : 0;
+    }
+
+    /**
+     * The error handler sets the status only after the error has left the chain, so it is derived from the
+     * error the same way: the status of a {@link ResponseStatusException}, anything else is a 500
+     */
+    private static int errorStatus(Throwable error) {
+        return error instanceof ResponseStatusException statusException
+                ? statusException.getStatusCode().value()
+                : HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    private static String service(URI uri) {
+        return uri != null && "lb".equals(uri.getScheme()) && uri.getHost() != null ? uri.getHost() : "none";
+    }
+
+    private static final class CountingResponse extends ServerHttpResponseDecorator {
+
+        private volatile long bytesWritten;
+
+        private CountingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(chunk -> Flux.from(chunk).doOnNext(this::count)));
+        }
+
+        private void count(DataBuffer buffer) {
+            // Buffers of one response are written sequentially
+            bytesWritten += buffer.readableByteCount();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ec.com.ecommerce.gateway.application.metrics;
+
+/**
+ * Point-in-time traffic statistics of one route since it first served a request on this node.
+ * Latencies are in milliseconds; p99 falls back to the max when no percentiles are published.
+ */
+public record RouteStats(String routeId, String service, long requests, long successes, long clientErrors,
+                         long serverErrors, double meanMillis, double p99Millis, double maxMillis,
+                         double requestBytes, double responseBytes) {
+
+    public enum Sort {
+        REQUESTS,
+        LATENCY,
+        ERRORS
+    }
+}
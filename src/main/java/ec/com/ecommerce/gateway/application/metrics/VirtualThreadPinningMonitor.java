@@ -0,0 +1,134 @@
+package ec.com.ecommerce.gateway.application.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} events in-process, so virtual threads that block while
+ * pinned to their carrier (native frames, or monitors on older JDKs) show up in the diagnostics and as the
+ * {@code gateway.virtual-threads.pinned} timer.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int RECENT_EVENTS = 20;
+    private static final int MAX_SITES = 100;
+    private static final int SITE_FRAMES = 5;
+
+    private final Timer pinned;
+    private final boolean enabled;
+    private final Duration threshold;
+    private final ConcurrentMap<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+    private final Deque<PinnedEvent> recent = new ArrayDeque<>(RECENT_EVENTS);
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${gateway.blocking.pinning-monitor.enabled:true}") boolean enabled,
+                                       @Value("${gateway.blocking.pinning-monitor.threshold:20ms}") Duration threshold) {
+        this.pinned = Timer.builder("gateway.virtual-threads.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Monitoring virtual thread pinning longer than {}", threshold);
+        } catch (RuntimeException e) {
+            log.warn("Virtual thread pinning monitor not available: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Summary for the diagnostics endpoint: totals, the most frequent pinning sites and the latest events
+     */
+    public Map<String, Object> summary(int topSites) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("monitoring", stream != null);
+        summary.put("threshold", threshold.toString());
+        summary.put("pinned_count", pinned.count());
+        summary.put("pinned_total_ms", pinned.totalTime(TimeUnit.MILLISECONDS));
+        summary.put("top_sites", pinnedBySite.entrySet().stream()
+                .sorted(Map.Entry.<String, LongAdder>comparingByValue(Comparator.comparingLong(LongAdder::sum)).reversed())
+                .limit(topSites)
+                .map(entry -> Map.of("site", entry.getKey(), "count", entry.getValue().sum()))
+                .toList());
+        synchronized (recent) {
+            summary.put("recent", List.copyOf(recent));
+        }
+        return summary;
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+
+        List<String> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames().stream()
+                .limit(SITE_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .toList();
+        String site = frames.isEmpty() ? "unknown" : frames.get(0);
+        if (pinnedBySite.size() < MAX_SITES || pinnedBySite.containsKey(site)) {
+            pinnedBySite.computeIfAbsent(site, key -> new LongAdder()).increment();
+        }
+
+        RecordedThread thread = event.getThread();
+        PinnedEvent pinnedEvent = new PinnedEvent(event.getStartTime(), event.getDuration().toMillis(),
+                thread != null ? thread.getJavaName() : null, frames);
+        synchronized (recent) {
+            if (recent.size() == RECENT_EVENTS) {
+                recent.removeFirst();
+            }
+            recent.addLast(pinnedEvent);
+        }
+        log.debug("Virtual thread pinned for {} at {}", event.getDuration(), site);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    public record PinnedEvent(Instant at, long durationMillis, String thread, List<String> frames) {
+    }
+}
@@ -0,0 +1,73 @@
+package ec.com.ecommerce.gateway.application.routing;
+
+import ec.com.ecommerce.gateway.application.discovery.DocumentedServiceCatalog;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+/**
+ * Routes a templated route to {@code lb://<service>}, taking the service from a path template variable,
+ * e.g. {@code Path=/docs/{service}/**} with {@code DiscoveredService=service}.
+ * Only services in the {@link DocumentedServiceCatalog} are routed, anything else gets a 404.
+ */
+@Slf4j
+@Component
+public class DiscoveredServiceGatewayFilterFactory extends AbstractGatewayFilterFactory<DiscoveredServiceGatewayFilterFactory.Config> {
+
+    private final DocumentedServiceCatalog documentedServiceCatalog;
+
+    public DiscoveredServiceGatewayFilterFactory(DocumentedServiceCatalog documentedServiceCatalog) {
+        super(Config.class);
+        this.documentedServiceCatalog = documentedServiceCatalog;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("variable");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Runs right after the route URI was merged into the request URL, replacing its target
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            String name = ServerWebExchangeUtils.getUriTemplateVariables(exchange).get(config.getVariable());
+            Optional<String> serviceId = documentedServiceCatalog.resolve(name);
+            if (serviceId.isEmpty()) {
+                log.debug("Rejecting request for unknown service '{}'", name);
+                exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+                return exchange.getResponse().setComplete();
+            }
+
+            URI requestUrl = exchange.getRequiredAttribute(GATEWAY_REQUEST_URL_ATTR);
+            URI serviceUrl = UriComponentsBuilder.fromUri(requestUrl)
+                    .scheme("lb")
+                    .host(serviceId.get())
+                    .port(-1)
+                    .build(true)
+                    .toUri();
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, serviceUrl);
+            return chain.filter(exchange);
+        }, RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1);
+    }
+
+    @Data
+    public static class Config {
+        /**
+         * Path template variable holding the service name
+         */
+        private String variable = "service";
+    }
+}
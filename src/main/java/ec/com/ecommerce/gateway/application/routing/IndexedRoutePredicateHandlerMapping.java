@@ -0,0 +1,106 @@
+package ec.com.ecommerce.gateway.application.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+/**
+ * Route handler mapping that narrows the candidate routes with a {@link PathRouteIndex} before
+ * evaluating the full route predicates. The index is rebuilt after every successful route refresh
+ * from the compiled routes (already sorted by order) and the patterns of their own Path predicates, so a route
+ * is always indexed under the paths it actually matches.
+ */
+@Slf4j
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping
+        implements ApplicationListener<RefreshRoutesResultEvent> {
+
+    private final RouteLocator routeLocator;
+    private volatile PathRouteIndex<Route> index;
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                               GlobalCorsProperties globalCorsProperties, Environment environment) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeLocator = routeLocator;
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        if (!event.isSuccess()) {
+            return;
+        }
+
+        routeLocator.getRoutes().collectList().subscribe(routes -> {
+            index = PathRouteIndex.build(routes, IndexedRoutePredicateHandlerMapping::pathPatterns);
+            log.debug("Rebuilt path index over {} routes ({} unindexed)", index.size(), index.unindexedCount());
+        }, e -> {
+            log.error("Failed to rebuild path index, falling back to linear route matching", e);
+            index = null;
+        });
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        PathRouteIndex<Route> current = index;
+        if (current == null) {
+            return super.lookupRoute(exchange);
+        }
+
+        List<Route> candidates = current.candidates(pathSegments(exchange));
+        return Flux.fromIterable(candidates)
+                .concatMap(route -> Mono.just(route).filterWhen(r -> {
+                            exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, r.getId());
+                            return r.getPredicate().apply(exchange);
+                        })
+                        .doOnError(e -> log.error("Error applying predicate for route: {}", route.getId(), e))
+                        .onErrorResume(e -> Mono.empty()))
+                .next()
+                .map(route -> {
+                    log.debug("Route matched: {} ({} of {} routes evaluated)", route.getId(), candidates.size(), current.size());
+                    validateRoute(route, exchange);
+                    return route;
+                });
+    }
+
+    /**
+     * Decoded path segments without matrix variables, as matched by the Path predicate
+     */
+    private static List<String> pathSegments(ServerWebExchange exchange) {
+        List<String> segments = new ArrayList<>();
+        for (PathContainer.Element element : exchange.getRequest().getPath().pathWithinApplication().elements()) {
+            if (element instanceof PathContainer.PathSegment segment && !segment.valueToMatch().isEmpty()) {
+                segments.add(segment.valueToMatch());
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Path patterns of a compiled route, read from the config of its Path predicates.
+     * Routes compiled from definitions only combine their predicates with AND.
+     */
+    static List<String> pathPatterns(Route route) {
+        List<String> patterns = new ArrayList<>();
+        route.getPredicate().accept(predicate -> {
+            if (predicate.getConfig() instanceof PathRoutePredicateFactory.Config config && config.getPatterns() != null) {
+                patterns.addAll(config.getPatterns());
+            }
+        });
+        return patterns;
+    }
+}
@@ -0,0 +1,148 @@
+package ec.com.ecommerce.gateway.application.routing;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable segment trie over route path patterns, used to narrow the routes whose predicates
+ * have to be evaluated for a request path.
+ * <p>
+ * The index is conservative: it may return routes that do not match, but never drops a route that
+ * could match. Routes without an indexable path pattern are always returned, and candidates are
+ * returned in the order of the input list, so route order is preserved.
+ */
+public final class PathRouteIndex<T> {
+
+    private final List<T> routes;
+    private final Node root;
+    private final BitSet unindexed;
+
+    private PathRouteIndex(List<T> routes, Node root, BitSet unindexed) {
+        this.routes = routes;
+        this.root = root;
+        this.unindexed = unindexed;
+    }
+
+    /**
+     * Build an index over routes in matching order.
+     *
+     * @param patterns path patterns of a route; an empty list means the route cannot be indexed
+     */
+    public static <T> PathRouteIndex<T> build(List<T> routes, Function<T, List<String>> patterns) {
+        Node root = new Node();
+        BitSet unindexed = new BitSet();
+        for (int position = 0; position < routes.size(); position++) {
+            List<String> routePatterns = patterns.apply(routes.get(position));
+            if (routePatterns.isEmpty() || !routePatterns.stream().allMatch(PathRouteIndex::isIndexable)) {
+                unindexed.set(position);
+                continue;
+            }
+            for (String pattern : routePatterns) {
+                insert(root, segments(pattern), position);
+            }
+        }
+        return new PathRouteIndex<>(List.copyOf(routes), root, unindexed);
+    }
+
+    /**
+     * Routes that may match the given (decoded, non-empty) path segments, in route order
+     */
+    public List<T> candidates(List<String> pathSegments) {
+        BitSet matches = (BitSet) unindexed.clone();
+        collect(root, pathSegments, 0, matches);
+
+        List<T> result = new ArrayList<>(matches.cardinality());
+        for (int position = matches.nextSetBit(0); position >= 0; position = matches.nextSetBit(position + 1)) {
+            result.add(routes.get(position));
+        }
+        return result;
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    public int unindexedCount() {
+        return unindexed.cardinality();
+    }
+
+    private static void collect(Node node, List<String> path, int depth, BitSet matches) {
+        matches.or(node.rest);
+        if (depth == path.size()) {
+            matches.or(node.terminal);
+            return;
+        }
+
+        Node literal = node.literals.get(path.get(depth));
+        if (literal != null) {
+            collect(literal, path, depth + 1, matches);
+        }
+        if (node.wildcard != null) {
+            collect(node.wildcard, path, depth + 1, matches);
+        }
+    }
+
+    private static void insert(Node root, List<String> segments, int position) {
+        Node node = root;
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (isCaptureRest(segment)) {
+                node.rest.set(position);
+                return;
+            }
+            node = isWildcard(segment)
+                    ? node.wildcardChild()
+                    : node.literals.computeIfAbsent(segment, key -> new Node());
+        }
+        node.terminal.set(position);
+    }
+
+    /**
+     * Multi-segment wildcards are only supported as the last segment, like Spring's PathPattern
+     */
+    private static boolean isIndexable(String pattern) {
+        List<String> segments = segments(pattern);
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (segments.get(i).contains("**") || segments.get(i).contains("{*")) {
+                return false;
+            }
+        }
+        return pattern.startsWith("/");
+    }
+
+    private static boolean isCaptureRest(String segment) {
+        return segment.equals("**") || (segment.startsWith("{*") && segment.endsWith("}"));
+    }
+
+    private static boolean isWildcard(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    private static List<String> segments(String pattern) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final BitSet terminal = new BitSet();
+        private final BitSet rest = new BitSet();
+        private Node wildcard;
+
+        private Node wildcardChild() {
+            if (wildcard == null) {
+                wildcard = new Node();
+            }
+            return wildcard;
+        }
+    }
+}
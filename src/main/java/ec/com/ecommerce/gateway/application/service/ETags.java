@@ -0,0 +1,38 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Strong entity tags for pre-encoded response bodies
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Quoted strong ETag derived from the SHA-256 of the body
+     */
+    public static String strong(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Whether an If-None-Match value list matches the ETag (weak comparison, as required for GET)
+     */
+    public static boolean matches(Iterable<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals(etag) || candidate.equals("W/" + etag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,310 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import ec.com.ecommerce.gateway.application.discovery.DocumentedServiceCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches the OpenAPI documents of all documented services concurrently and merges them into one spec.
+ * <p>
+ * Each service document is cached with its ETag and revalidated with If-None-Match, at most once per max age
+ * no matter how many clients poll, and concurrent requests share the same revalidation. Component names are
+ * prefixed with the service docs name so schemas of different services cannot collide; security requirements
+ * name their schemes instead of referencing them, so they are renamed as well, and a service's root-level
+ * requirement is copied to its operations since it must not apply to the other services. Tags are merged by
+ * name and the merged document declares the newest OpenAPI version of the services. A service that cannot be
+ * reached keeps contributing its last fetched document.
+ */
+@Slf4j
+@Service
+public class OpenApiSpecAggregator {
+
+    private static final String DEFAULT_OPENAPI_VERSION = "3.0.1";
+    private static final List<String> OPERATIONS = List.of("get", "put", "post", "delete", "options", "head", "patch", "trace");
+
+    /**
+     * Merged document, pre-encoded, with a strong ETag over its bytes
+     */
+    public record AggregatedSpec(byte[] body, String etag, Instant validatedAt) {
+    }
+
+    private record ServiceSpec(String etag, JsonNode document) {
+    }
+
+    private final WebClient webClient;
+    private final DiscoveryClient discoveryClient;
+    private final DocumentedServiceCatalog documentedServiceCatalog;
+    private final ObjectMapper objectMapper;
+    private final String docsPath;
+    private final Duration maxAge;
+    private final Duration fetchTimeout;
+    private final int concurrency;
+
+    private final Map<String, ServiceSpec> specsByService = new ConcurrentHashMap<>();
+    private final AtomicLong specsVersion = new AtomicLong();
+
+    private volatile AggregatedSpec aggregated;
+    private volatile long aggregatedVersion = -1;
+    private Mono<AggregatedSpec> revalidation;
+
+    public OpenApiSpecAggregator(WebClient.Builder webClientBuilder,
+                                 DiscoveryClient discoveryClient,
+                                 DocumentedServiceCatalog documentedServiceCatalog,
+                                 ObjectMapper objectMapper,
+                                 @Value("${gateway.docs.aggregate.path:/v3/api-docs}") String docsPath,
+                                 @Value("${gateway.docs.aggregate.max-age:30s}") Duration maxAge,
+                                 @Value("${gateway.docs.aggregate.timeout:5s}") Duration fetchTimeout,
+                                 @Value("${gateway.docs.aggregate.concurrency:16}") int concurrency) {
+        this.webClient = webClientBuilder.build();
+        this.discoveryClient = discoveryClient;
+        this.documentedServiceCatalog = documentedServiceCatalog;
+        this.objectMapper = objectMapper;
+        this.docsPath = docsPath;
+        this.maxAge = maxAge;
+        this.fetchTimeout = fetchTimeout;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * The merged spec, revalidated against the services when it is older than the max age
+     */
+    public Mono<AggregatedSpec> aggregatedSpec() {
+        AggregatedSpec current = aggregated;
+        if (current != null && current.validatedAt().plus(maxAge).isAfter(Instant.now())) {
+            return Mono.just(current);
+        }
+        return revalidate();
+    }
+
+    /**
+     * Revalidate every service document now, sharing a revalidation that is already running
+     */
+    public synchronized Mono<AggregatedSpec> revalidate() {
+        if (revalidation == null) {
+            List<String> serviceIds = documentedServiceCatalog.serviceIds();
+            revalidation = Flux.fromIterable(serviceIds)
+                    .flatMap(this::fetch, concurrency)
+                    .then(Mono.fromCallable(() -> merge(serviceIds)))
+                    .doFinally(signal -> clearRevalidation())
+                    .cache();
+        }
+        return revalidation;
+    }
+
+    private synchronized void clearRevalidation() {
+        revalidation = null;
+    }
+
+    private Mono<Void> fetch(String serviceId) {
+        List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+        if (instances.isEmpty()) {
+            return Mono.empty();
+        }
+        ServiceInstance instance = instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+        ServiceSpec cached = specsByService.get(serviceId);
+
+        return webClient.get()
+                .uri(instance.getUri().resolve(docsPath))
+                .headers(headers -> {
+                    if (cached != null && cached.etag() != null) {
+                        headers.setIfNoneMatch(cached.etag());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+                        log.debug("OpenAPI docs of {} not modified", serviceId);
+                        return response.releaseBody();
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.releaseBody().then(Mono.error(new IllegalStateException(
+                                "Unexpected status " + response.statusCode().value())));
+                    }
+                    String etag = response.headers().asHttpHeaders().getETag();
+                    return response.bodyToMono(byte[].class)
+                            .map(this::readTree)
+                            .doOnNext(document -> {
+                                specsByService.put(serviceId, new ServiceSpec(etag, document));
+                                specsVersion.incrementAndGet();
+                                log.debug("Fetched OpenAPI docs of {} (etag {})", serviceId, etag);
+                            })
+                            .then();
+                })
+                .timeout(fetchTimeout)
+                .onErrorResume(e -> {
+                    log.warn("Failed to fetch OpenAPI docs of {}, keeping the last known version: {}", serviceId, e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private AggregatedSpec merge(List<String> serviceIds) {
+        if (specsByService.keySet().retainAll(serviceIds)) {
+            specsVersion.incrementAndGet();
+        }
+
+        long version = specsVersion.get();
+        AggregatedSpec previous = aggregated;
+        if (previous != null && version == aggregatedVersion) {
+            // Nothing changed, only extend the validity of the merged document
+            AggregatedSpec revalidated = new AggregatedSpec(previous.body(), previous.etag(), Instant.now());
+            aggregated = revalidated;
+            return revalidated;
+        }
+
+        ObjectNode merged = objectMapper.createObjectNode();
+        merged.put("openapi", DEFAULT_OPENAPI_VERSION);
+        merged.putObject("info")
+                .put("title", "E-Commerce Platform API")
+                .put("version", "1.0.0")
+                .put("description", "Merged OpenAPI documents of all services behind the gateway");
+        merged.putArray("servers").addObject().put("url", "/");
+        ArrayNode tags = merged.putArray("tags");
+        ObjectNode paths = merged.putObject("paths");
+        ObjectNode components = merged.putObject("components");
+
+        String openapi = DEFAULT_OPENAPI_VERSION;
+        Set<String> tagNames = new HashSet<>();
+        for (String serviceId : serviceIds) {
+            ServiceSpec spec = specsByService.get(serviceId);
+            if (spec == null) {
+                continue;
+            }
+            String prefix = DocumentedServiceCatalog.docsName(serviceId) + ".";
+            JsonNode document = prefixComponentReferences(spec.document().deepCopy(), prefix);
+            prefixSecurityRequirements(document, prefix);
+            openapi = newerVersion(openapi, document.path("openapi").asText());
+
+            document.path("paths").fields().forEachRemaining(path -> {
+                if (paths.has(path.getKey())) {
+                    log.warn("Path {} of {} is already documented by another service, skipping it", path.getKey(), serviceId);
+                } else {
+                    paths.set(path.getKey(), path.getValue());
+                }
+            });
+            document.path("components").fields().forEachRemaining(type -> {
+                ObjectNode target = components.has(type.getKey())
+                        ? (ObjectNode) components.get(type.getKey())
+                        : components.putObject(type.getKey());
+                type.getValue().fields().forEachRemaining(component -> target.set(prefix + component.getKey(), component.getValue()));
+            });
+            document.path("tags").forEach(tag -> {
+                if (tagNames.add(tag.path("name").asText())) {
+                    tags.add(tag);
+                }
+            });
+        }
+        merged.put("openapi", openapi);
+        if (tags.isEmpty()) {
+            merged.remove("tags");
+        }
+
+        byte[] body = writeBytes(merged);
+        AggregatedSpec result = new AggregatedSpec(body, ETags.strong(body), Instant.now());
+        aggregated = result;
+        aggregatedVersion = version;
+        log.info("Merged OpenAPI docs of {} services ({} paths, {} bytes)", specsByService.size(), paths.size(), body.length);
+        return result;
+    }
+
+    /**
+     * Rewrite every {@code #/components/<type>/<name>} reference to the prefixed component name
+     */
+    private static JsonNode prefixComponentReferences(JsonNode node, String prefix) {
+        if (node instanceof ObjectNode object) {
+            JsonNode ref = object.get("$ref");
+            if (ref != null && ref.isTextual() && ref.asText().startsWith("#/components/")) {
+                String reference = ref.asText();
+                int nameStart = reference.indexOf('/', "#/components/".length()) + 1;
+                if (nameStart > 0) {
+                    object.set("$ref", TextNode.valueOf(reference.substring(0, nameStart) + prefix + reference.substring(nameStart)));
+                }
+            }
+        }
+        for (Iterator<JsonNode> children = node.elements(); children.hasNext(); ) {
+            prefixComponentReferences(children.next(), prefix);
+        }
+        return node;
+    }
+
+    /**
+     * Rename the schemes of every operation's security requirements, operations without their own requirements
+     * getting the document's root-level one
+     */
+    private static void prefixSecurityRequirements(JsonNode document, String prefix) {
+        JsonNode rootSecurity = document.get("security");
+        document.path("paths").forEach(pathItem -> OPERATIONS.forEach(method -> {
+            if (pathItem.get(method) instanceof ObjectNode operation) {
+                JsonNode security = operation.has("security") ? operation.get("security") : rootSecurity;
+                if (security instanceof ArrayNode requirements) {
+                    operation.set("security", prefixRequirements(requirements, prefix));
+                }
+            }
+        }));
+    }
+
+    private static ArrayNode prefixRequirements(ArrayNode requirements, String prefix) {
+        ArrayNode prefixed = requirements.arrayNode();
+        requirements.forEach(requirement -> {
+            ObjectNode renamed = prefixed.addObject();
+            requirement.fields().forEachRemaining(scheme -> renamed.set(prefix + scheme.getKey(), scheme.getValue().deepCopy()));
+        });
+        return prefixed;
+    }
+
+    /**
+     * The higher of two OpenAPI versions, ignoring a blank or malformed candidate
+     */
+    static String newerVersion(String current, String candidate) {
+        if (!candidate.matches("\\d+(\\.\\d+)*")) {
+            return current;
+        }
+        String[] a = current.split("\\.");
+        String[] b = candidate.split("\\.");
+        for (int i = 0; i < Math.max(a.length, b.length); i++) {
+            int left = i < a.length ? Integer.parseInt(a[i]) : 0;
+            int right = i < b.length ? Integer.parseInt(b[i]) : 0;
+            if (left != right) {
+                return right > left ? candidate : current;
+            }
+        }
+        return current;
+    }
+
+    private JsonNode readTree(byte[] body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Unreadable OpenAPI document", e);
+        }
+    }
+
+    private byte[] writeBytes(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsBytes(node);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot serialize merged OpenAPI document", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.application.event.RouteChangeMessage;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes route table deltas to all gateway nodes through Redis pub/sub.
+ * Every message carries a cluster-wide version taken from a Redis counter, so receivers can detect missed messages.
+ * The version is taken and the message published in one script, so messages of concurrent publishers are
+ * delivered in version order. Opt-in with gateway.routes.refresh-bus.enabled, as it needs Redis.
+ */
+@Slf4j
+@Service
+public class RouteRefreshBus {
+
+    /**
+     * Takes the next version and publishes the message with it as the first field; the message is sent without one
+     */
+    private static final RedisScript<Long> PUBLISH_CHANGE = RedisScript.of("""
+            local version = redis.call('INCR', KEYS[1])
+            redis.call('PUBLISH', ARGV[1], '{"version":' .. version .. ',' .. string.sub(ARGV[2], 2))
+            return version
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Getter
+    private final boolean enabled;
+
+    @Getter
+    private final String channel;
+
+    @Getter
+    private final String versionKey;
+
+    public RouteRefreshBus(ReactiveStringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                           @Value("${gateway.routes.refresh-bus.enabled:false}") boolean enabled,
+                           @Value("${gateway.routes.refresh-bus.channel:gateway-route-changes}") String channel,
+                           @Value("${gateway.routes.refresh-bus.version-key:gateway-route-changes:version}") String versionKey) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.versionKey = versionKey;
+    }
+
+    /**
+     * Broadcast saved routes (disabled routes are removed on the receiving nodes)
+     */
+    public void publishChanges(List<RouteEntity> routes) {
+        publishChanges(routes, List.of());
+    }
+
+    /**
+     * Broadcast saved and deleted routes as one change
+     */
+    public void publishChanges(List<RouteEntity> routes, List<String> deletedRouteIds) {
+        publish(RouteChangeMessage.builder().type(RouteChangeMessage.Type.CHANGE).routes(routes)
+                .deletedRouteIds(deletedRouteIds));
+    }
+
+    /**
+     * Broadcast a deleted route
+     */
+    public void publishDelete(String routeId) {
+        publish(RouteChangeMessage.builder().type(RouteChangeMessage.Type.DELETE).routeId(routeId));
+    }
+
+    /**
+     * Ask every node to reload its routes from the route store
+     */
+    public void publishFullRefresh() {
+        publish(RouteChangeMessage.builder().type(RouteChangeMessage.Type.FULL));
+    }
+
+    /**
+     * Latest version published by any node
+     */
+    public Mono<Long> currentVersion() {
+        return redisTemplate.opsForValue().get(versionKey)
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L);
+    }
+
+    private void publish(RouteChangeMessage.RouteChangeMessageBuilder message) {
+        if (!enabled) {
+            return;
+        }
+
+        RouteChangeMessage change = message.originNodeId(nodeId).build();
+        Mono.fromCallable(() -> objectMapper.writeValueAsString(change))
+                .flatMap(payload -> redisTemplate.execute(PUBLISH_CHANGE, List.of(versionKey), List.of(channel, payload)).next())
+                .subscribe(version -> log.debug("Published route change {} version {}", change.getType(), version),
+                        e -> log.error("Failed to publish route change to the refresh bus", e));
+    }
+}
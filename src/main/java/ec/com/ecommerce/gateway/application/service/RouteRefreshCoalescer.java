@@ -0,0 +1,189 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects route changes over a short window and persists them together with a single route refresh,
+ * so bursts of route messages (e.g. during rolling deploys) do not rebuild the route table once per message.
+ * Changes are applied in submission order, and {@link #pending()} reports how many are not yet persisted,
+ * which the Kafka listeners use to pause consumption while persistence falls behind.
+ * <p>
+ * A batch that cannot be saved is retried route by route, so one bad route only loses itself; the routes that
+ * still fail are logged with their content. On shutdown the last window is flushed before the coalescer stops.
+ */
+@Slf4j
+@Service
+public class RouteRefreshCoalescer {
+
+    private final RouteService routeService;
+    private final MeterRegistry meterRegistry;
+    private final Scheduler blockingScheduler;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Duration shutdownTimeout;
+
+    private final Sinks.Many<PendingRoute> pending = Sinks.many().unicast().onBackpressureBuffer();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private DistributionSummary batchSize;
+    private Timer timeToLiveRoute;
+    private CompletableFuture<Void> drained;
+
+    public RouteRefreshCoalescer(RouteService routeService, MeterRegistry meterRegistry, Scheduler blockingScheduler,
+                                 @Value("${gateway.routes.refresh.coalesce.enabled:true}") boolean enabled,
+                                 @Value("${gateway.routes.refresh.coalesce.window:500ms}") Duration window,
+                                 @Value("${gateway.routes.refresh.coalesce.max-batch-size:200}") int maxBatchSize,
+                                 @Value("${gateway.routes.refresh.coalesce.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.routeService = routeService;
+        this.meterRegistry = meterRegistry;
+        this.blockingScheduler = blockingScheduler;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @PostConstruct
+    void start() {
+        batchSize = DistributionSummary.builder("gateway.routes.refresh.batch.size")
+                .description("Number of route changes persisted per coalesced refresh")
+                .register(meterRegistry);
+        timeToLiveRoute = Timer.builder("gateway.routes.refresh.time-to-live")
+                .description("Time from receiving a route change until it is live in the gateway")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("gateway.routes.refresh.pending", pendingCount, AtomicInteger::get)
+                .description("Route changes received and not yet persisted")
+                .register(meterRegistry);
+
+        drained = pending.asFlux()
+                .bufferTimeout(maxBatchSize, window)
+                .publishOn(blockingScheduler)
+                .doOnNext(this::flush)
+                .doOnError(e -> log.error("Route refresh coalescer stopped", e))
+                .then()
+                .toFuture();
+        log.info("Route refresh coalescer started (enabled={}, window={}, maxBatchSize={})", enabled, window, maxBatchSize);
+    }
+
+    /**
+     * Flush the current window, waiting up to the shutdown timeout, before the listeners' offsets are lost with it
+     */
+    @PreDestroy
+    void stop() {
+        pending.emitComplete(Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        if (drained == null) {
+            return;
+        }
+        try {
+            drained.get(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("{} route changes not persisted within {}, dropping them", pendingCount.get(), shutdownTimeout);
+            drained.cancel(true);
+        } catch (ExecutionException e) {
+            log.warn("Route refresh coalescer failed while flushing", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drained.cancel(true);
+        }
+    }
+
+    /**
+     * Queue a route change; it is persisted and refreshed with the rest of the current window.
+     * Serialized because the listener containers submit from one thread per partition.
+     */
+    public synchronized void submit(RouteEntity route) {
+        if (!enabled) {
+            routeService.saveRoute(route);
+            return;
+        }
+        pendingCount.incrementAndGet();
+        pending.emitNext(new PendingRoute(route, System.nanoTime()), Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+    }
+
+    /**
+     * Route changes submitted and not yet persisted (or failed)
+     */
+    public int pending() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Queue several route changes, e.g. one Kafka poll, into the current window
+     */
+    public synchronized void submitAll(Collection<RouteEntity> routes) {
+        if (!enabled) {
+            routeService.saveRoutes(routes);
+            return;
+        }
+        routes.forEach(this::submit);
+    }
+
+    private void flush(List<PendingRoute> batch) {
+        // Keep only the latest change per route id, in arrival order
+        Map<String, PendingRoute> latest = new LinkedHashMap<>();
+        for (PendingRoute change : batch) {
+            latest.remove(change.route().getId());
+            latest.put(change.route().getId(), change);
+        }
+
+        try {
+            List<RouteEntity> written = saveBatch(latest.values().stream().map(PendingRoute::route).toList());
+            batchSize.record(latest.size());
+
+            long now = System.nanoTime();
+            batch.forEach(change -> timeToLiveRoute.record(Duration.ofNanos(now - change.receivedAt())));
+            log.info("Applied {} route changes ({} received, {} unchanged or failed)",
+                    written.size(), batch.size(), latest.size() - written.size());
+        } finally {
+            pendingCount.addAndGet(-batch.size());
+        }
+    }
+
+    /**
+     * Save the batch at once, or route by route when that fails so only the bad routes are lost
+     */
+    private List<RouteEntity> saveBatch(List<RouteEntity> routes) {
+        try {
+            return routeService.saveRoutes(routes);
+        } catch (Exception e) {
+            log.warn("Failed to apply batch of {} route changes, applying them one by one: {}", routes.size(), e.toString());
+        }
+        return routes.stream()
+                .filter(route -> {
+                    try {
+                        routeService.saveRoute(route);
+                        return true;
+                    } catch (Exception e) {
+                        log.error("Dropping route change {} that cannot be applied: {}", route.getId(), route, e);
+                        return false;
+                    }
+                })
+                .toList();
+    }
+
+    private record PendingRoute(RouteEntity route, long receivedAt) {
+    }
+}
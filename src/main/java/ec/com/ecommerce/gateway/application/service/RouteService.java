@@ -1,15 +1,26 @@
 package ec.com.ecommerce.gateway.application.service;
 
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
 import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
 import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -17,21 +28,110 @@ import java.util.Optional;
 public class RouteService {
 
     private final RouteRepository routeRepository;
+    private final RouteSnapshotRepository routeSnapshotRepository;
+    private final RouteDefinitionConverter routeDefinitionConverter;
+    private final RouteRefreshBus routeRefreshBus;
     private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gateway.routes.refresh.incremental:true}")
+    private boolean incrementalRefresh;
 
     /**
-     * Save or update a route
+     * Save or update a route, skipping the write and the refresh when the stored route has the same content
      */
     public RouteEntity saveRoute(RouteEntity route) {
+        routeDefinitionConverter.prepareForWrite(route);
+        Optional<RouteEntity> existing = routeRepository.findById(route.getId());
+        if (existing.isPresent() && route.getContentHash().equals(existing.get().getContentHash())) {
+            log.debug("Route {} unchanged, skipping save", route.getId());
+            recordWrites(0, 1);
+            return existing.get();
+        }
+
         log.info("Saving route: {}", route.getId());
         RouteEntity savedRoute = routeRepository.save(route);
+        recordWrites(1, 0);
         
         // Trigger route refresh
-        refreshRoutes();
+        refreshRoute(savedRoute);
         
         return savedRoute;
     }
 
+    /**
+     * Save or update a batch of routes in one transaction and refresh once.
+     * Routes whose content is already stored are skipped; returns the routes that were written.
+     */
+    @Transactional
+    public List<RouteEntity> saveRoutes(Collection<RouteEntity> routes) {
+        List<RouteEntity> changedRoutes = changedRoutes(routes);
+        if (changedRoutes.isEmpty()) {
+            log.info("All {} routes unchanged, skipping save and refresh", routes.size());
+            return List.of();
+        }
+
+        log.info("Saving {} changed routes ({} unchanged)", changedRoutes.size(), routes.size() - changedRoutes.size());
+        List<RouteEntity> savedRoutes = routeRepository.saveAll(changedRoutes);
+
+        // Trigger a single route refresh for the whole batch, once other nodes can read it
+        afterCommit(() -> refreshRoutes(savedRoutes));
+
+        return savedRoutes;
+    }
+
+    /**
+     * Save and delete a batch of routes in one transaction and refresh at most once
+     */
+    @Transactional
+    public void applyRouteChanges(Collection<RouteEntity> routes, Collection<String> deletedRouteIds) {
+        if (routes.isEmpty() && deletedRouteIds.isEmpty()) {
+            return;
+        }
+        log.info("Saving {} routes and deleting {} routes", routes.size(), deletedRouteIds.size());
+        routes.forEach(routeDefinitionConverter::prepareForWrite);
+        List<RouteEntity> savedRoutes = routeRepository.saveAll(routes);
+        routeRepository.deleteAllById(deletedRouteIds);
+
+        afterCommit(() -> {
+            if (deletedRouteIds.isEmpty()) {
+                refreshRoutes(savedRoutes);
+            } else {
+                refreshRoutes(savedRoutes, List.copyOf(deletedRouteIds));
+            }
+        });
+    }
+
+    private void refreshRoutes(List<RouteEntity> savedRoutes, List<String> deletedRouteIds) {
+        routeSnapshotRepository.writeThrough(savedRoutes, deletedRouteIds);
+        boolean applied = incrementalRefresh
+                && savedRoutes.stream().allMatch(routeSnapshotRepository::applyChange)
+                && deletedRouteIds.stream().allMatch(routeSnapshotRepository::applyDelete);
+        if (!applied) {
+            refreshRoutes();
+            return;
+        }
+        log.info("Triggering route refresh for {} changed routes", savedRoutes.size() + deletedRouteIds.size());
+        eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+        routeRefreshBus.publishChanges(List.copyOf(savedRoutes), deletedRouteIds);
+    }
+
+    /**
+     * Prepare routes for writing and keep only those whose content hash differs from the stored row
+     */
+    public List<RouteEntity> changedRoutes(Collection<RouteEntity> routes) {
+        routes.forEach(routeDefinitionConverter::prepareForWrite);
+        Map<String, String> storedHashes = routeRepository.findByIdIn(routes.stream().map(RouteEntity::getId).toList()).stream()
+                .filter(stored -> stored.getContentHash() != null)
+                .collect(Collectors.toMap(RouteRepository.ContentHashView::getId, RouteRepository.ContentHashView::getContentHash));
+
+        List<RouteEntity> changedRoutes = routes.stream()
+                .filter(route -> !route.getContentHash().equals(storedHashes.get(route.getId())))
+                .toList();
+        recordWrites(changedRoutes.size(), routes.size() - changedRoutes.size());
+        return changedRoutes;
+    }
+
     /**
      * Get all enabled routes
      */
@@ -59,9 +159,15 @@ public class RouteService {
     public void deleteRoute(String routeId) {
         log.info("Deleting route: {}", routeId);
         routeRepository.deleteById(routeId);
+        routeSnapshotRepository.writeThrough(List.of(), List.of(routeId));
         
         // Trigger route refresh
-        refreshRoutes();
+        if (!incrementalRefresh || !routeSnapshotRepository.applyDelete(routeId)) {
+            refreshRoutes();
+            return;
+        }
+        publishScopedRefresh(routeId);
+        routeRefreshBus.publishDelete(routeId);
     }
 
     /**
@@ -71,21 +177,96 @@ public class RouteService {
         Optional<RouteEntity> routeOpt = routeRepository.findById(routeId);
         if (routeOpt.isPresent()) {
             RouteEntity route = routeOpt.get();
+            if (Objects.equals(route.getEnabled(), enabled)) {
+                log.debug("Route {} already {}", routeId, enabled ? "enabled" : "disabled");
+                recordWrites(0, 1);
+                return;
+            }
             route.setEnabled(enabled);
-            routeRepository.save(route);
+            RouteEntity savedRoute = routeRepository.save(routeDefinitionConverter.prepareForWrite(route));
+            recordWrites(1, 0);
             
             log.info("Route {} {}", routeId, enabled ? "enabled" : "disabled");
             
             // Trigger route refresh
+            refreshRoute(savedRoute);
+        }
+    }
+
+    /**
+     * Refresh a single saved gateway route, recompiling only that route.
+     * Falls back to a full refresh when incremental refresh is disabled or the snapshot is stale.
+     */
+    public void refreshRoute(RouteEntity route) {
+        routeSnapshotRepository.writeThrough(List.of(route), List.of());
+        if (!incrementalRefresh || !routeSnapshotRepository.applyChange(route)) {
             refreshRoutes();
+            return;
         }
+        publishScopedRefresh(route.getId());
+        routeRefreshBus.publishChanges(List.of(route));
+    }
+
+    /**
+     * Refresh after a batch of route changes with a single route refresh.
+     * The snapshot is updated in memory so the refresh does not need to read the database.
+     */
+    public void refreshRoutes(Collection<RouteEntity> routes) {
+        if (routes.size() == 1) {
+            refreshRoute(routes.iterator().next());
+            return;
+        }
+
+        routeSnapshotRepository.writeThrough(routes, List.of());
+        boolean applied = incrementalRefresh && routes.stream().allMatch(routeSnapshotRepository::applyChange);
+        if (!applied) {
+            refreshRoutes();
+            return;
+        }
+        log.info("Triggering route refresh for {} changed routes", routes.size());
+        eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+        routeRefreshBus.publishChanges(List.copyOf(routes));
+    }
+
+    private void recordWrites(int applied, int skipped) {
+        if (applied > 0) {
+            meterRegistry.counter("gateway.routes.writes", "result", "applied").increment(applied);
+        }
+        if (skipped > 0) {
+            meterRegistry.counter("gateway.routes.writes", "result", "skipped").increment(skipped);
+        }
+    }
+
+    /**
+     * Run once the current transaction has committed, so reloads triggered by it read the committed rows;
+     * immediately when there is no transaction
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void publishScopedRefresh(String routeId) {
+        log.info("Triggering route refresh for route {}", routeId);
+        eventPublisher.publishEvent(new RefreshRoutesEvent(this,
+                Map.of(RouteSnapshotRepository.ROUTE_ID_METADATA, routeId)));
     }
 
     /**
-     * Refresh gateway routes
+     * Refresh gateway routes on every node, reloading the route snapshot from the database
      */
     public void refreshRoutes() {
         log.info("Triggering route refresh");
+        routeSnapshotRepository.invalidate();
         eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+        routeRefreshBus.publishFullRefresh();
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotFile;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Keeps a local copy of the route snapshot in a {@link RouteSnapshotFile}.
+ * <p>
+ * On startup the copy is restored before the gateway builds its routes, so traffic is served without
+ * waiting for the database; once the application has started the snapshot is reconciled with the route
+ * store in the background, retrying until the store is reachable. Every later change of the snapshot is
+ * written back, at most once per write interval, on a thread of its own so a slow disk does not hold up
+ * the blocking scheduler's route store calls.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gateway.routes.snapshot.file.enabled", havingValue = "true", matchIfMissing = true)
+public class RouteSnapshotFileStore {
+
+    private final RouteSnapshotRepository routeSnapshotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Scheduler fileScheduler = Schedulers.newSingle("route-snapshot-file");
+    private final RouteSnapshotFile snapshotFile;
+    private final Duration writeInterval;
+
+    private volatile boolean restored;
+    private Disposable writes;
+    private Disposable reconciliation;
+
+    public RouteSnapshotFileStore(RouteSnapshotRepository routeSnapshotRepository, ApplicationEventPublisher eventPublisher,
+                                  @Value("${gateway.routes.snapshot.file.path:${java.io.tmpdir}/gateway-routes.snapshot}") Path path,
+                                  @Value("${gateway.routes.snapshot.file.write-interval:1s}") Duration writeInterval) {
+        this.routeSnapshotRepository = routeSnapshotRepository;
+        this.eventPublisher = eventPublisher;
+        this.snapshotFile = new RouteSnapshotFile(path);
+        this.writeInterval = writeInterval;
+    }
+
+    @PostConstruct
+    void restore() {
+        restored = snapshotFile.read()
+                .map(routeSnapshotRepository::restore)
+                .orElse(false);
+
+        // Subscribed after the restore, so the restored snapshot is not written straight back
+        writes = routeSnapshotRepository.changes()
+                .sample(writeInterval)
+                .concatMap(change -> Mono.fromRunnable(this::write)
+                        .subscribeOn(fileScheduler))
+                .subscribe();
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    void reconcile() {
+        if (!restored) {
+            return;
+        }
+
+        long restoredVersion = routeSnapshotRepository.snapshot().version();
+        reconciliation = routeSnapshotRepository.reload()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .doBeforeRetry(signal -> log.warn("Route store not reachable, still serving the restored route snapshot: {}",
+                                signal.failure().getMessage())))
+                .subscribe(snapshot -> {
+                    if (snapshot.version() != restoredVersion) {
+                        log.info("Restored route snapshot was out of date, refreshing to version {}", snapshot.version());
+                        eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+                    } else {
+                        log.info("Restored route snapshot version {} matches the route store", restoredVersion);
+                    }
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writes != null) {
+            writes.dispose();
+        }
+        if (reconciliation != null) {
+            reconciliation.dispose();
+        }
+        fileScheduler.dispose();
+    }
+
+    private void write() {
+        try {
+            snapshotFile.write(routeSnapshotRepository.snapshot());
+        } catch (IOException e) {
+            log.warn("Failed to write the route snapshot to {}", snapshotFile.getPath(), e);
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package ec.com.ecommerce.gateway.application.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
 import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.application.discovery.DocumentedServiceCatalog;
 import ec.com.ecommerce.gateway.application.event.RouteConfigMessage;
+import ec.com.ecommerce.gateway.application.event.RouteEventPublisher;
+import ec.com.ecommerce.gateway.application.leader.LeaderElection;
 import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service to manage Swagger/OpenAPI documentation aggregation
@@ -22,46 +32,82 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SwaggerAggregatorService {
 
-    private final DiscoveryClient discoveryClient;
+    private static final String MAIN_SWAGGER_ROUTE_ID = "gateway-swagger-aggregator";
+
+    /**
+     * Ids of the per-service routes generated before the templated docs routes existed
+     * (Kafka published swagger routes end with a hash instead)
+     */
+    private static final Pattern LEGACY_ROUTE_ID = Pattern.compile("swagger-.+-(ui|api-docs)|direct-swagger-.+");
+
     private final RouteRepository routeRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final RouteEventPublisher routeEventPublisher;
     private final RouteService routeService;
+    private final LeaderElection leaderElection;
+    private final DocumentedServiceCatalog documentedServiceCatalog;
+    private final RouteDefinitionConverter routeDefinitionConverter;
 
     /**
-     * Generate aggregated Swagger routes for all discovered services
+     * Reconcile the generated Swagger routes: the aggregator route plus the templated docs routes, which resolve
+     * the target service per request, so they do not change when services come and go.
+     * Missing or changed routes are written and the old per-service routes deleted, in one batch with one refresh.
+     * Only the route generation leader writes; the other nodes receive the changes over the refresh bus.
+     * Failures are thrown, so the discovery catalog watcher retries the change.
      */
     public void generateAggregatedSwaggerRoutes() {
-        try {
-            log.info("Generating aggregated Swagger routes for discovered services");
-            
-            List<String> services = discoveryClient.getServices().stream()
-                    .filter(service -> !service.equalsIgnoreCase("gateway-server"))
-                    .filter(service -> !service.equalsIgnoreCase("discovery-server"))
-                    .filter(service -> !service.equalsIgnoreCase("config-server"))
-                    .collect(Collectors.toList());
-
-            log.info("Found services for Swagger aggregation: {}", services);
-
-            // Generate main Swagger aggregator route
-            generateMainSwaggerRoute();
-            
-            // Generate individual service documentation routes
-            for (String serviceName : services) {
-                generateServiceSwaggerRoutes(serviceName);
+        OptionalLong fencingToken = leaderElection.currentToken();
+        if (fencingToken.isEmpty()) {
+            log.debug("Not the route generation leader, skipping Swagger route generation");
+            return;
+        }
+        Map<String, RouteEntity> desiredRoutes = new LinkedHashMap<>();
+        // Structured definitions included, so routes stored with outdated ones are rewritten
+        Stream.of(mainSwaggerRoute(), docsRoute(), directDocsRoute())
+                .map(routeDefinitionConverter::ensureStructuredDefinitions)
+                .forEach(route -> desiredRoutes.put(route.getId(), route));
+
+        Map<String, RouteEntity> storedRoutes = routeRepository.findAllById(desiredRoutes.keySet()).stream()
+                .collect(Collectors.toMap(RouteEntity::getId, Function.identity()));
+
+        List<RouteEntity> changedRoutes = new ArrayList<>();
+        for (RouteEntity desired : desiredRoutes.values()) {
+            RouteEntity stored = storedRoutes.get(desired.getId());
+            if (stored == null) {
+                changedRoutes.add(desired);
+            } else if (!sameContent(stored, desired)) {
+                // Keep routes an administrator disabled disabled
+                desired.setEnabled(stored.getEnabled());
+                changedRoutes.add(desired);
             }
+        }
+
+        List<String> legacyRouteIds = routeRepository
+                .findByIdStartingWithOrIdStartingWith("swagger-", "direct-swagger-").stream()
+                .map(RouteEntity::getId)
+                .filter(id -> LEGACY_ROUTE_ID.matcher(id).matches())
+                .filter(id -> !desiredRoutes.containsKey(id))
+                .collect(Collectors.toList());
+
+        if (changedRoutes.isEmpty() && legacyRouteIds.isEmpty()) {
+            log.debug("Swagger routes are up to date");
+            return;
+        }
 
-        } catch (Exception e) {
-            log.error("Error generating aggregated Swagger routes", e);
+        if (!leaderElection.holdsLease(fencingToken.getAsLong())) {
+            log.warn("Route generation lease {} expired while reconciling, discarding Swagger route changes",
+                    fencingToken.getAsLong());
+            return;
         }
+        log.info("Reconciling Swagger routes: {} changed, {} per-service routes removed", changedRoutes.size(), legacyRouteIds.size());
+        routeService.applyRouteChanges(changedRoutes, legacyRouteIds);
     }
 
     /**
-     * Generate main Swagger aggregator route that lists all services
+     * Main Swagger aggregator route that lists all services
      */
-    private void generateMainSwaggerRoute() {
-        RouteEntity mainSwaggerRoute = RouteEntity.builder()
-                .id("gateway-swagger-aggregator")
+    private RouteEntity mainSwaggerRoute() {
+        return RouteEntity.builder()
+                .id(MAIN_SWAGGER_ROUTE_ID)
                 .uri("http://localhost:8080") // Gateway's own URL
                 .predicates("Path=/swagger-ui.html,Path=/swagger-ui/**,Path=/swagger-ui")
                 .filters("RewritePath=/swagger-ui.*,/swagger-aggregator")
@@ -70,95 +116,75 @@ public class SwaggerAggregatorService {
                 .enabled(true)
                 .serviceName("gateway")
                 .build();
-
-        routeService.saveRoute(mainSwaggerRoute);
-        log.info("Generated main Swagger aggregator route");
     }
 
     /**
-     * Generate Swagger routes for a specific service
+     * Swagger UI and OpenAPI docs of every documented service, e.g. /docs/orders/swagger-ui/** and /docs/orders/v3/api-docs
      */
-    private void generateServiceSwaggerRoutes(String serviceName) {
-        String cleanServiceName = serviceName.replaceAll("(?i)[-_]service$", "");
-        
-        // Route for service's Swagger UI (accessible via /docs/{service})
-        RouteEntity serviceSwaggerUI = RouteEntity.builder()
-                .id("swagger-" + cleanServiceName + "-ui")
-                .uri("lb://" + serviceName)
-                .predicates("Path=/docs/" + cleanServiceName + "/swagger-ui/**")
-                .filters("StripPrefix=2")
+    private RouteEntity docsRoute() {
+        return RouteEntity.builder()
+                .id("swagger-docs-template")
+                .uri("no://op") // Replaced by lb://{service} per request
+                .predicates("Path=/docs/{service}/**")
+                .filters("StripPrefix=2,DiscoveredService=service")
                 .orderNum(10)
-                .description("Swagger UI for " + cleanServiceName + " service")
-                .enabled(true)
-                .serviceName(cleanServiceName)
-                .build();
-
-        routeService.saveRoute(serviceSwaggerUI);
-
-        // Route for service's OpenAPI docs (accessible via /docs/{service}/api-docs)
-        RouteEntity serviceApiDocs = RouteEntity.builder()
-                .id("swagger-" + cleanServiceName + "-api-docs")
-                .uri("lb://" + serviceName)
-                .predicates("Path=/docs/" + cleanServiceName + "/v3/api-docs/**")
-                .filters("StripPrefix=2")
-                .orderNum(11)
-                .description("OpenAPI docs for " + cleanServiceName + " service")
+                .description("Swagger UI and OpenAPI docs of each discovered service")
                 .enabled(true)
-                .serviceName(cleanServiceName)
+                .serviceName("gateway")
                 .build();
+    }
 
-        routeService.saveRoute(serviceApiDocs);
-
-        // Route for direct access to service's own Swagger UI
-        RouteEntity directSwaggerUI = RouteEntity.builder()
-                .id("direct-swagger-" + cleanServiceName)
-                .uri("lb://" + serviceName)
-                .predicates("Path=/" + cleanServiceName + "/swagger-ui/**")
-                .filters("StripPrefix=1")
+    /**
+     * Direct access to each service's own Swagger UI, e.g. /orders/swagger-ui/**
+     */
+    private RouteEntity directDocsRoute() {
+        return RouteEntity.builder()
+                .id("swagger-direct-template")
+                .uri("no://op") // Replaced by lb://{service} per request
+                .predicates("Path=/{service}/swagger-ui/**")
+                .filters("StripPrefix=1,DiscoveredService=service")
                 .orderNum(12)
-                .description("Direct Swagger UI access for " + cleanServiceName + " service")
+                .description("Direct Swagger UI access of each discovered service")
                 .enabled(true)
-                .serviceName(cleanServiceName)
+                .serviceName("gateway")
                 .build();
+    }
 
-        routeService.saveRoute(directSwaggerUI);
-
-        log.info("Generated Swagger routes for service: {}", cleanServiceName);
+    private static boolean sameContent(RouteEntity stored, RouteEntity desired) {
+        return Objects.equals(stored.getUri(), desired.getUri())
+                && Objects.equals(stored.getPredicates(), desired.getPredicates())
+                && Objects.equals(stored.getFilters(), desired.getFilters())
+                && Objects.equals(stored.getPredicateDefinitions(), desired.getPredicateDefinitions())
+                && Objects.equals(stored.getFilterDefinitions(), desired.getFilterDefinitions())
+                && Objects.equals(stored.getOrderNum(), desired.getOrderNum())
+                && Objects.equals(stored.getDescription(), desired.getDescription())
+                && Objects.equals(stored.getServiceName(), desired.getServiceName());
     }
 
     /**
-     * Generate Swagger configuration message and send to Kafka
+     * Generate Swagger configuration message and send to Kafka, completing once the send is acknowledged or failed
      */
-    public void publishSwaggerRoute(String serviceName, String routePath, String description) {
-        try {
-            RouteConfigMessage swaggerRoute = RouteConfigMessage.builder()
-                    .routeId("swagger-" + serviceName + "-" + routePath.hashCode())
-                    .uri("lb://" + serviceName + "-service")
-                    .predicates(Arrays.asList("Path=" + routePath))
-                    .filters(Arrays.asList("StripPrefix=0"))
-                    .orderNum(5)
-                    .description(description)
-                    .enabled(true)
-                    .serviceName(serviceName)
-                    .build();
-
-            String jsonMessage = objectMapper.writeValueAsString(swaggerRoute);
-            kafkaTemplate.send("gateway-route-config", serviceName, jsonMessage);
-            log.info("Published Swagger route: {} for service: {}", routePath, serviceName);
-
-        } catch (Exception e) {
-            log.error("Error publishing Swagger route for service: {}", serviceName, e);
-        }
+    public CompletableFuture<RouteEventPublisher.PublishResult> publishSwaggerRoute(String serviceName, String routePath,
+                                                                                    String description) {
+        RouteConfigMessage swaggerRoute = RouteConfigMessage.builder()
+                .routeId("swagger-" + serviceName + "-" + routePath.hashCode())
+                .uri("lb://" + serviceName + "-service")
+                .predicates(Arrays.asList("Path=" + routePath))
+                .filters(Arrays.asList("StripPrefix=0"))
+                .orderNum(5)
+                .description(description)
+                .enabled(true)
+                .serviceName(serviceName)
+                .build();
+
+        log.debug("Publishing Swagger route: {} for service: {}", routePath, serviceName);
+        return routeEventPublisher.publish("gateway-route-config", serviceName, swaggerRoute);
     }
 
     /**
      * Get list of services with Swagger documentation
      */
     public List<String> getServicesWithSwagger() {
-        return routeRepository.findAll().stream()
-                .filter(route -> route.getId().contains("swagger"))
-                .map(RouteEntity::getServiceName)
-                .distinct()
-                .collect(Collectors.toList());
+        return documentedServiceCatalog.docsNames();
     }
 }
\ No newline at end of file
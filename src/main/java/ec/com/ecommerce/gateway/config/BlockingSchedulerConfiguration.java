@@ -0,0 +1,107 @@
+package ec.com.ecommerce.gateway.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler for blocking route store calls (JPA, JDBC) made from reactive code, selected with
+ * gateway.blocking.scheduler (virtual or bounded-elastic). Other blocking work does not belong here: it would
+ * hold permits meant for database connections.
+ * <p>
+ * The virtual-thread scheduler starts one virtual thread per task and lets at most max-concurrency of them
+ * run at once. Tasks over the limit park cheaply instead of queueing behind a fixed set of platform threads.
+ * The limit defaults to the JDBC pool size, so waiting happens here rather than inside the connection pool,
+ * where it would count against the connection timeout.
+ */
+@Slf4j
+@Configuration
+public class BlockingSchedulerConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(name = "gateway.blocking.scheduler", havingValue = "virtual", matchIfMissing = true)
+    public Scheduler virtualThreadBlockingScheduler(
+            @Value("${gateway.blocking.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency) {
+        log.info("Running blocking calls on virtual threads, at most {} at a time", maxConcurrency);
+        ExecutorService virtualThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gateway-blocking-", 0).factory());
+        // Disposing the scheduler shuts the executor down
+        return Schedulers.fromExecutorService(new LimitedExecutorService(virtualThreads, maxConcurrency), "gateway-blocking");
+    }
+
+    /**
+     * The shared scheduler is left running on shutdown, other libraries use it as well
+     */
+    @Bean(destroyMethod = "")
+    @ConditionalOnProperty(name = "gateway.blocking.scheduler", havingValue = "bounded-elastic")
+    public Scheduler boundedElasticBlockingScheduler() {
+        log.info("Running blocking calls on the bounded elastic scheduler");
+        return Schedulers.boundedElastic();
+    }
+
+    /**
+     * Runs every task on its own thread of the delegate, with at most a fixed number running at once
+     */
+    private static final class LimitedExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        private LimitedExecutorService(ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency, true);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -1,28 +1,138 @@
 package ec.com.ecommerce.gateway.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import ec.com.ecommerce.gateway.adapter.persistence.DatabaseRouteDefinitionRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.KafkaRouteDefinitionRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.R2dbcRouteDefinitionRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RedisRouteDefinitionRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
 import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
+import ec.com.ecommerce.gateway.application.routing.IndexedRoutePredicateHandlerMapping;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
 import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
+import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.core.env.Environment;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
 
 /**
  * Configuration for Gateway routing - Use database as PRIMARY route source
+ * The route store is selected with gateway.routes.store (jpa, r2dbc, redis or kafka)
  */
 @Slf4j
 @Configuration
 public class GatewayRoutingConfiguration {
 
+    @Bean
+    public RouteDefinitionConverter routeDefinitionConverter() {
+        return new RouteDefinitionConverter();
+    }
+
     /**
      * Our custom route definition repository (NOT marked as Primary)
+     * The snapshot max age bounds how long writes made by other gateway nodes can go unnoticed, see {@link #snapshotMaxAge}
+     */
+    @Bean("databaseRouteDefinitionRepository")
+    @ConditionalOnProperty(name = "gateway.routes.store", havingValue = "jpa", matchIfMissing = true)
+    public RouteSnapshotRepository databaseRouteDefinitionRepository(
+            RouteRepository repository,
+            RouteDefinitionConverter converter,
+            Scheduler blockingScheduler,
+            Environment environment) {
+        Duration maxSnapshotAge = snapshotMaxAge(environment);
+        log.info("Creating DatabaseRouteDefinitionRepository with snapshot max age {}", maxSnapshotAge);
+        return new DatabaseRouteDefinitionRepository(repository, converter, maxSnapshotAge, blockingScheduler);
+    }
+
+    /**
+     * Non-blocking R2DBC route store. The connection pool is private to the route store so the
+     * JDBC DataSource used by JPA is still auto-configured.
+     */
+    @Bean("databaseRouteDefinitionRepository")
+    @ConditionalOnProperty(name = "gateway.routes.store", havingValue = "r2dbc")
+    public RouteSnapshotRepository r2dbcRouteDefinitionRepository(
+            RouteDefinitionConverter converter,
+            ObjectMapper objectMapper,
+            Environment environment,
+            @Value("${gateway.routes.r2dbc.url}") String url,
+            @Value("${gateway.routes.r2dbc.username:${spring.datasource.username:}}") String username,
+            @Value("${gateway.routes.r2dbc.password:${spring.datasource.password:}}") String password,
+            @Value("${gateway.routes.r2dbc.pool.max-size:10}") int maxPoolSize) {
+        Duration maxSnapshotAge = snapshotMaxAge(environment);
+        log.info("Creating R2dbcRouteDefinitionRepository with snapshot max age {}", maxSnapshotAge);
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxPoolSize)
+                .build());
+        return new R2dbcRouteDefinitionRepository(pool, converter, objectMapper, maxSnapshotAge);
+    }
+
+    /**
+     * Redis route store, written through from Postgres which stays the durable source
      */
     @Bean("databaseRouteDefinitionRepository")
-    public RouteDefinitionRepository databaseRouteDefinitionRepository(RouteRepository repository) {
-        log.info("Creating DatabaseRouteDefinitionRepository");
-        return new DatabaseRouteDefinitionRepository(repository);
+    @ConditionalOnProperty(name = "gateway.routes.store", havingValue = "redis")
+    public RouteSnapshotRepository redisRouteDefinitionRepository(
+            ReactiveStringRedisTemplate redisTemplate,
+            RouteRepository repository,
+            RouteDefinitionConverter converter,
+            ObjectMapper objectMapper,
+            Scheduler blockingScheduler,
+            Environment environment,
+            @Value("${gateway.routes.redis.key-prefix:{gateway-routes}}") String keyPrefix) {
+        Duration maxSnapshotAge = snapshotMaxAge(environment);
+        log.info("Creating RedisRouteDefinitionRepository with key prefix {} and snapshot max age {}", keyPrefix, maxSnapshotAge);
+        return new RedisRouteDefinitionRepository(redisTemplate, repository, converter, objectMapper, keyPrefix, maxSnapshotAge,
+                blockingScheduler);
+    }
+
+    /**
+     * Route store materialized from the compacted route log, the data plane does not read the database
+     */
+    @Bean("databaseRouteDefinitionRepository")
+    @ConditionalOnProperty(name = "gateway.routes.store", havingValue = "kafka")
+    public KafkaRouteDefinitionRepository kafkaRouteDefinitionRepository(
+            KafkaTemplate<String, String> kafkaTemplate,
+            RouteRepository repository,
+            RouteDefinitionConverter converter,
+            ObjectMapper objectMapper,
+            Scheduler blockingScheduler,
+            Environment environment,
+            @Value("${gateway.routes.kafka.topic:gateway-routes}") String topic) {
+        Duration maxSnapshotAge = snapshotMaxAge(environment);
+        log.info("Creating KafkaRouteDefinitionRepository on route log {} with snapshot max age {}", topic, maxSnapshotAge);
+        return new KafkaRouteDefinitionRepository(kafkaTemplate, repository, converter, objectMapper, topic, maxSnapshotAge,
+                blockingScheduler);
+    }
+
+    /**
+     * gateway.routes.snapshot.max-age, by default 30s; with the refresh bus delivering other nodes' writes
+     * it only catches missed messages and defaults to 5m
+     */
+    private static Duration snapshotMaxAge(Environment environment) {
+        boolean refreshBus = environment.getProperty("gateway.routes.refresh-bus.enabled", Boolean.class, false);
+        return environment.getProperty("gateway.routes.snapshot.max-age", Duration.class,
+                refreshBus ? Duration.ofMinutes(5) : Duration.ofSeconds(30));
     }
 
     /**
@@ -36,4 +146,18 @@ public class GatewayRoutingConfiguration {
         // Simply delegate to our database repository
         return databaseRouteDefinitionRepository::getRouteDefinitions;
     }
-}
\ No newline at end of file
+
+    /**
+     * Replaces the default handler mapping so requests are matched against a path index
+     * instead of evaluating every route predicate in order
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.routes.path-index.enabled", havingValue = "true", matchIfMissing = true)
+    public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler,
+                                                                     RouteLocator routeLocator,
+                                                                     GlobalCorsProperties globalCorsProperties,
+                                                                     Environment environment) {
+        log.info("Creating path-indexed RoutePredicateHandlerMapping");
+        return new IndexedRoutePredicateHandlerMapping(webHandler, routeLocator, globalCorsProperties, environment);
+    }
+}
@@ -0,0 +1,45 @@
+package ec.com.ecommerce.gateway.config;
+
+import ec.com.ecommerce.gateway.application.leader.InMemoryLeaderElection;
+import ec.com.ecommerce.gateway.application.leader.LeaderElection;
+import ec.com.ecommerce.gateway.application.leader.RedisLeaderElection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Route generation leader election, selected with gateway.leader-election.mode: local (the default, every node
+ * leads, as before leader election existed) or redis for a lease shared by all nodes
+ */
+@Configuration
+public class LeaderElectionConfiguration {
+
+    @Bean(initMethod = "start")
+    @ConditionalOnProperty(name = "gateway.leader-election.mode", havingValue = "redis")
+    public LeaderElection redisLeaderElection(
+            ReactiveStringRedisTemplate redisTemplate,
+            ApplicationEventPublisher eventPublisher,
+            Scheduler blockingScheduler,
+            @Value("${gateway.leader-election.key-prefix:gateway-route-generation}") String keyPrefix,
+            @Value("${gateway.leader-election.lease-ttl:15s}") Duration leaseTtl,
+            @Value("${gateway.leader-election.renew-interval:5s}") Duration renewInterval) {
+        return new RedisLeaderElection(redisTemplate, eventPublisher, keyPrefix, leaseTtl, renewInterval, Clock.systemUTC(),
+                blockingScheduler);
+    }
+
+    /**
+     * Single node setups and deployments without Redis: this node is always the leader
+     */
+    @Bean(initMethod = "grant")
+    @ConditionalOnProperty(name = "gateway.leader-election.mode", havingValue = "local", matchIfMissing = true)
+    public LeaderElection localLeaderElection(ApplicationEventPublisher eventPublisher) {
+        return new InMemoryLeaderElection(eventPublisher);
+    }
+}
@@ -1,24 +1,57 @@
 package ec.com.ecommerce.gateway.config;
 
 import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.application.service.RouteService;
 import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
- * Initialize sample routes for testing when no routes exist
+ * Initialize sample routes for testing when no routes exist, saved through the {@link RouteService} so every
+ * node picks them up. Runs in the background once the application has started, retrying until the route store
+ * is reachable; meanwhile routes are served from the restored snapshot.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class RouteDataInitializer implements CommandLineRunner {
+public class RouteDataInitializer {
 
     private final RouteRepository routeRepository;
+    private final RouteService routeService;
+    private final Scheduler blockingScheduler;
+
+    private Disposable initialization;
+
+    @EventListener(ApplicationStartedEvent.class)
+    void start() {
+        initialization = Mono.fromRunnable(this::initialize)
+                .subscribeOn(blockingScheduler)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .doBeforeRetry(signal -> log.warn("Route store not reachable, retrying route initialization: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
 
-    @Override
-    public void run(String... args) throws Exception {
+    @PreDestroy
+    void stop() {
+        if (initialization != null) {
+            initialization.dispose();
+        }
+    }
+
+    void initialize() {
         log.info("Checking if routes need to be initialized...");
         
         long routeCount = routeRepository.count();
@@ -45,9 +78,6 @@ public class RouteDataInitializer implements CommandLineRunner {
                 .serviceName("global")
                 .build();
 
-        routeRepository.save(countriesRoute);
-        log.info("Created sample route: {}", countriesRoute.getId());
-
         // Create route for the admin endpoints
         RouteEntity adminRoute = RouteEntity.builder()
                 .id("gateway-admin-routes")
@@ -60,7 +90,7 @@ public class RouteDataInitializer implements CommandLineRunner {
                 .serviceName("gateway")
                 .build();
 
-        routeRepository.save(adminRoute);
-        log.info("Created admin route: {}", adminRoute.getId());
+        routeService.saveRoutes(List.of(countriesRoute, adminRoute));
+        log.info("Created sample route {} and admin route {}", countriesRoute.getId(), adminRoute.getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package ec.com.ecommerce.gateway.config;
+
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.application.service.RouteService;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migrate routes that only have the legacy comma-joined predicate/filter strings
+ * to the structured JSON definitions. The migrated routes are saved through the {@link RouteService}, so every
+ * node picks them up. Runs in the background once the application has started,
+ * retrying until the route store is reachable, so a database outage does not hold up startup.
+ * Rows whose definitions cannot be parsed are logged and left as they are, they do not hold up the others.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "gateway.routes.migration.structured-definitions", havingValue = "true", matchIfMissing = true)
+public class StructuredRouteDefinitionMigration {
+
+    private final RouteRepository routeRepository;
+    private final RouteService routeService;
+    private final RouteDefinitionConverter routeDefinitionConverter;
+    private final Scheduler blockingScheduler;
+
+    private Disposable migration;
+
+    @EventListener(ApplicationStartedEvent.class)
+    void start() {
+        migration = Mono.fromRunnable(this::migrate)
+                .subscribeOn(blockingScheduler)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .filter(StructuredRouteDefinitionMigration::isRouteStoreFailure)
+                        .doBeforeRetry(signal -> log.warn("Route store not reachable, retrying the structured definition migration: {}",
+                                signal.failure().getMessage())))
+                .subscribe(null, e -> log.error("Structured definition migration failed", e));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (migration != null) {
+            migration.dispose();
+        }
+    }
+
+    void migrate() {
+        List<RouteEntity> legacyRoutes = routeRepository.findByPredicateDefinitionsIsNullOrFilterDefinitionsIsNull();
+        if (legacyRoutes.isEmpty()) {
+            log.info("All routes already use structured definitions, skipping migration");
+            return;
+        }
+
+        List<RouteEntity> convertible = new ArrayList<>();
+        for (RouteEntity route : legacyRoutes) {
+            try {
+                convertible.add(routeDefinitionConverter.ensureStructuredDefinitions(route));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping route {} in the structured definition migration: {}", route.getId(), e.getMessage());
+            }
+        }
+
+        List<RouteEntity> migrated = routeService.saveRoutes(convertible);
+        log.info("Migrated {} routes to structured predicate/filter definitions, skipped {} unreadable routes",
+                migrated.size(), legacyRoutes.size() - convertible.size());
+    }
+
+    /**
+     * Only failures to reach the route store are worth retrying, anything else fails the same way again
+     */
+    private static boolean isRouteStoreFailure(Throwable failure) {
+        return failure instanceof DataAccessException || failure instanceof TransactionException;
+    }
+}
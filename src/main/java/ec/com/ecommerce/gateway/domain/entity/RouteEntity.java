@@ -2,6 +2,12 @@ package ec.com.ecommerce.gateway.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+
+import java.util.List;
 
 @Entity
 @Getter
@@ -22,6 +28,20 @@ public class RouteEntity {
     
     @Column(length = 1000)
     private String filters;
+
+    /**
+     * Structured predicates; when set they take precedence over the legacy predicates string
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "predicate_definitions", columnDefinition = "jsonb")
+    private List<PredicateDefinition> predicateDefinitions;
+
+    /**
+     * Structured filters; when set they take precedence over the legacy filters string
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "filter_definitions", columnDefinition = "jsonb")
+    private List<FilterDefinition> filterDefinitions;
     
     @Column(name = "order_num")
     private Integer orderNum;
@@ -34,5 +54,11 @@ public class RouteEntity {
     
     @Column(name = "service_name")
     private String serviceName;
+
+    /**
+     * SHA-256 of the stored route content, compared to skip writes that would not change the row
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
 }
 
@@ -0,0 +1,57 @@
+package ec.com.ecommerce.config;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.mock;
+
+class KafkaConfigTest {
+
+    /**
+     * Nothing listens there, every broker call fails or times out
+     */
+    private final KafkaAdmin unreachableBroker = new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:1"));
+    private final NewTopic gatewayTopic = TopicBuilder.name("gateway-topic").partitions(4).replicas(1).build();
+
+    @Test
+    void shouldTakeThePartitionsOfDeclaredTopicsWithoutAskingTheBroker() {
+        ConcurrentMessageListenerContainer<Object, Object> container = container("gateway-topic");
+
+        long start = System.nanoTime();
+        customizer(Duration.ofMinutes(1)).configure(container);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(container.getConcurrency()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldKeepTheConfiguredConcurrencyWhenAnUndeclaredTopicCannotBeDescribedInTime() {
+        ConcurrentMessageListenerContainer<Object, Object> container = container("gateway-route-config");
+
+        assertThatCode(() -> customizer(Duration.ofMillis(200)).configure(container)).doesNotThrowAnyException();
+
+        assertThat(container.getConcurrency()).isEqualTo(1);
+    }
+
+    private ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>> customizer(Duration describeTimeout) {
+        return new KafkaConfig().partitionConcurrencyCustomizer(unreachableBroker, List.of(gatewayTopic), 10, describeTimeout);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMessageListenerContainer<Object, Object> container(String topic) {
+        return new ConcurrentMessageListenerContainer<>(mock(ConsumerFactory.class), new ContainerProperties(topic));
+    }
+}
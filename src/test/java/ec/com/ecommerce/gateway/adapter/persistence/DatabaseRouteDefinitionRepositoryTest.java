@@ -0,0 +1,168 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseRouteDefinitionRepositoryTest {
+
+    @Mock
+    RouteRepository routeRepository;
+
+    DatabaseRouteDefinitionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new DatabaseRouteDefinitionRepository(routeRepository, Duration.ofHours(1));
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromSnapshot() {
+        when(routeRepository.findByEnabledTrue()).thenReturn(List.of(route("orders", "Path=/orders/**")));
+
+        List<RouteDefinition> first = repository.getRouteDefinitions().collectList().block();
+        List<RouteDefinition> second = repository.getRouteDefinitions().collectList().block();
+
+        assertThat(first).extracting(RouteDefinition::getId).containsExactly("orders");
+        assertThat(second).isEqualTo(first);
+        assertThat(repository.snapshot().version()).isEqualTo(1);
+        verify(routeRepository, times(1)).findByEnabledTrue();
+    }
+
+    @Test
+    void shouldKeepVersionWhenReloadFindsNoChanges() {
+        when(routeRepository.findByEnabledTrue()).thenReturn(List.of(route("orders", "Path=/orders/**")));
+        repository.getRouteDefinitions().collectList().block();
+
+        repository.invalidate();
+        repository.getRouteDefinitions().collectList().block();
+
+        assertThat(repository.snapshot().version()).isEqualTo(1);
+        verify(routeRepository, times(2)).findByEnabledTrue();
+    }
+
+    @Test
+    void shouldSwapSnapshotWhenRowsChange() {
+        when(routeRepository.findByEnabledTrue())
+                .thenReturn(List.of(route("orders", "Path=/orders/**")))
+                .thenReturn(List.of(route("orders", "Path=/orders/**"), route("users", "Path=/users/**")));
+        repository.getRouteDefinitions().collectList().block();
+
+        repository.invalidate();
+        List<RouteDefinition> routes = repository.getRouteDefinitions().collectList().block();
+
+        assertThat(routes).extracting(RouteDefinition::getId).containsExactly("orders", "users");
+        assertThat(repository.snapshot().version()).isEqualTo(2);
+        assertThat(repository.snapshot().find("users")).isPresent();
+    }
+
+    @Test
+    void shouldServePreviousSnapshotWhenDatabaseFails() {
+        when(routeRepository.findByEnabledTrue())
+                .thenReturn(List.of(route("orders", "Path=/orders/**")))
+                .thenThrow(new IllegalStateException("database down"));
+        repository.getRouteDefinitions().collectList().block();
+
+        repository.invalidate();
+        List<RouteDefinition> routes = repository.getRouteDefinitions().collectList().block();
+
+        assertThat(routes).extracting(RouteDefinition::getId).containsExactly("orders");
+        assertThat(repository.snapshot().version()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldApplySingleRouteChangesWithoutReloading() {
+        when(routeRepository.findByEnabledTrue()).thenReturn(List.of(route("orders", "Path=/orders/**")));
+        repository.getRouteDefinitions().collectList().block();
+
+        assertThat(repository.applyChange(route("users", "Path=/users/**"))).isTrue();
+        assertThat(repository.applyDelete("orders")).isTrue();
+        List<RouteDefinition> routes = repository.getRouteDefinitions().collectList().block();
+
+        assertThat(routes).extracting(RouteDefinition::getId).containsExactly("users");
+        assertThat(routes.get(0).getMetadata()).containsEntry(RouteSnapshotRepository.ROUTE_ID_METADATA, "users");
+        assertThat(repository.snapshot().version()).isEqualTo(3);
+        verify(routeRepository, times(1)).findByEnabledTrue();
+    }
+
+    @Test
+    void shouldRemoveDisabledRouteOnChange() {
+        when(routeRepository.findByEnabledTrue()).thenReturn(List.of(route("orders", "Path=/orders/**")));
+        repository.getRouteDefinitions().collectList().block();
+
+        RouteEntity disabled = route("orders", "Path=/orders/**");
+        disabled.setEnabled(false);
+
+        assertThat(repository.applyChange(disabled)).isTrue();
+        assertThat(repository.snapshot().find("orders")).isEmpty();
+    }
+
+    @Test
+    void shouldPublishAppliedChangesOnTheFeed() {
+        when(routeRepository.findByEnabledTrue())
+                .thenReturn(List.of(route("orders", "Path=/orders/**")))
+                .thenReturn(List.of(route("users", "Path=/users/**"), route("payments", "Path=/payments/**")));
+        List<RouteTableChange> changes = new CopyOnWriteArrayList<>();
+        repository.changes().subscribe(changes::add);
+
+        repository.getRouteDefinitions().collectList().block();
+        repository.applyChange(route("users", "Path=/users/**"));
+        repository.applyDelete("missing");
+        repository.invalidate();
+        repository.getRouteDefinitions().collectList().block();
+
+        assertThat(changes).extracting(RouteTableChange::version, RouteTableChange::routeId, RouteTableChange::operation)
+                .containsExactly(
+                        tuple(1L, null, RouteTableChange.Operation.RELOAD),
+                        tuple(2L, "users", RouteTableChange.Operation.UPSERT),
+                        tuple(3L, "payments", RouteTableChange.Operation.UPSERT),
+                        tuple(3L, "orders", RouteTableChange.Operation.DELETE));
+    }
+
+    @Test
+    void shouldServeRestoredSnapshotUntilReconciled() {
+        RouteDefinitionSnapshot restored = RouteDefinitionSnapshot.of(7,
+                List.of(new RouteDefinitionConverter().toRouteDefinition(route("orders", "Path=/orders/**"))));
+        when(routeRepository.findByEnabledTrue()).thenReturn(List.of(route("orders", "Path=/orders/**")));
+
+        assertThat(repository.restore(restored)).isTrue();
+        List<RouteDefinition> served = repository.getRouteDefinitions().collectList().block();
+        verifyNoInteractions(routeRepository);
+
+        repository.reload().block();
+
+        assertThat(served).extracting(RouteDefinition::getId).containsExactly("orders");
+        assertThat(repository.snapshot().version()).isEqualTo(7);
+        assertThat(repository.restore(restored)).isFalse();
+    }
+
+    @Test
+    void shouldRequireFullRefreshWhenSnapshotIsStale() {
+        assertThat(repository.applyChange(route("orders", "Path=/orders/**"))).isFalse();
+        assertThat(repository.applyDelete("orders")).isFalse();
+    }
+
+    private RouteEntity route(String id, String predicates) {
+        return RouteEntity.builder()
+                .id(id)
+                .uri("lb://" + id)
+                .predicates(predicates)
+                .filters("StripPrefix=0")
+                .orderNum(0)
+                .enabled(true)
+                .build();
+    }
+}
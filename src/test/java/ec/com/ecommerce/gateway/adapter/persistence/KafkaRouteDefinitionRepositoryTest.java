@@ -0,0 +1,185 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.kafka.core.KafkaTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaRouteDefinitionRepositoryTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    RouteRepository routeRepository;
+
+    KafkaRouteDefinitionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new KafkaRouteDefinitionRepository(kafkaTemplate, routeRepository, new RouteDefinitionConverter(),
+                objectMapper, "gateway-routes", Duration.ofHours(1), Schedulers.immediate());
+    }
+
+    @Test
+    void shouldNotServeRoutesBeforeTheLogIsMaterialized() {
+        repository.materialize("orders", json(route("orders", 0)));
+
+        assertThat(repository.getRouteDefinitions().collectList().block()).isEmpty();
+
+        repository.markMaterialized();
+
+        assertThat(repository.getRouteDefinitions().collectList().block())
+                .extracting(RouteDefinition::getId).containsExactly("orders");
+    }
+
+    @Test
+    void shouldApplyRecordsAndTombstonesToTheRouteTableThenTheSnapshot() {
+        repository.materialize("users", json(route("users", 2)));
+        repository.materialize("orders", json(route("orders", 1)));
+        repository.markMaterialized();
+        repository.getRouteDefinitions().collectList().block();
+
+        assertThat(repository.materialize("orders", json(route("orders", 1)))).isFalse();
+        assertThat(repository.materialize("carts", json(route("carts", 3)))).isTrue();
+        assertThat(repository.materialize("users", null)).isTrue();
+        assertThat(repository.snapshot().routes()).extracting(RouteDefinition::getId).containsExactly("orders", "users");
+
+        assertThat(repository.applyToSnapshot("carts")).isTrue();
+        assertThat(repository.applyToSnapshot("users")).isTrue();
+
+        assertThat(repository.snapshot().routes()).extracting(RouteDefinition::getId).containsExactly("orders", "carts");
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void shouldWriteChangedRoutesAndTombstonesToTheLog() {
+        when(kafkaTemplate.send(eq("gateway-routes"), anyString(), any())).thenReturn(new CompletableFuture<>());
+        repository.materialize("orders", json(route("orders", 1)));
+        repository.markMaterialized();
+
+        repository.writeThrough(List.of(route("orders", 1), route("users", 2)), List.of());
+        repository.writeThrough(List.of(), List.of("orders", "carts"));
+
+        verify(kafkaTemplate).send(eq("gateway-routes"), eq("users"), anyString());
+        verify(kafkaTemplate).send("gateway-routes", "orders", null);
+        verifyNoMoreInteractions(kafkaTemplate);
+        // Taken over once read back from the log
+        assertThat(repository.materializedRoutes()).extracting(RouteEntity::getId).containsExactly("orders");
+    }
+
+    @Test
+    void shouldWriteARouteAgainAfterItsSendFailed() {
+        when(kafkaTemplate.send(eq("gateway-routes"), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unreachable")))
+                .thenReturn(new CompletableFuture<>());
+        repository.markMaterialized();
+
+        repository.writeThrough(List.of(route("orders", 1)), List.of());
+        repository.writeThrough(List.of(route("orders", 1)), List.of());
+        repository.writeThrough(List.of(route("orders", 1)), List.of());
+
+        verify(kafkaTemplate, times(2)).send(eq("gateway-routes"), eq("orders"), anyString());
+    }
+
+    @Test
+    void shouldFailSavesWhoseRouteCannotBeWrittenToTheLog() {
+        when(kafkaTemplate.send(eq("gateway-routes"), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unreachable")));
+        when(routeRepository.save(any(RouteEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        repository.markMaterialized();
+
+        assertThatThrownBy(() -> repository.save(Mono.just(new RouteDefinition("orders=lb://orders,Path=/orders/**"))).block())
+                .hasMessageContaining("broker unreachable");
+    }
+
+    @Test
+    void shouldSkipRecordsWithoutAKey() {
+        assertThat(repository.materialize(null, json(route("orders", 1)))).isFalse();
+        assertThat(repository.materialize(null, null)).isFalse();
+
+        assertThat(repository.materializedRoutes()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepDisabledRoutesInTheLog() {
+        when(kafkaTemplate.send(eq("gateway-routes"), anyString(), any())).thenReturn(new CompletableFuture<>());
+        repository.materialize("orders", json(route("orders", 1)));
+        repository.materialize("users", json(route("users", 2)));
+        repository.markMaterialized();
+        repository.getRouteDefinitions().collectList().block();
+
+        assertThat(repository.materialize("users", json(route("users", 2, false)))).isTrue();
+        assertThat(repository.applyToSnapshot("users")).isTrue();
+        repository.writeThrough(List.of(route("orders", 1, null)), List.of());
+        repository.applyChange(route("orders", 1, null));
+
+        assertThat(repository.snapshot().routes()).isEmpty();
+        assertThat(repository.materializedRoutes()).extracting(RouteEntity::getId).containsExactlyInAnyOrder("orders", "users");
+        verify(kafkaTemplate).send(eq("gateway-routes"), eq("orders"), anyString());
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), isNull());
+    }
+
+    @Test
+    void shouldSaveAndDeleteRouteDefinitionsInTheRoutesTableAndTheLog() {
+        when(kafkaTemplate.send(eq("gateway-routes"), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(routeRepository.save(any(RouteEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        repository.markMaterialized();
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId("orders");
+        definition.setUri(URI.create("lb://orders"));
+        definition.setPredicates(List.of(new PredicateDefinition("Path=/orders/**")));
+
+        repository.save(Mono.just(definition)).block();
+        repository.delete(Mono.just("orders")).block();
+
+        verify(routeRepository).save(argThat(route -> "orders".equals(route.getId())));
+        verify(routeRepository).deleteById("orders");
+        verify(kafkaTemplate).send(eq("gateway-routes"), eq("orders"), anyString());
+        verify(kafkaTemplate).send("gateway-routes", "orders", null);
+        assertThat(repository.materializedRoutes()).isEmpty();
+    }
+
+    private String json(RouteEntity route) {
+        try {
+            return objectMapper.writeValueAsString(route);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private RouteEntity route(String id, int order) {
+        return route(id, order, true);
+    }
+
+    private RouteEntity route(String id, int order, Boolean enabled) {
+        return RouteEntity.builder()
+                .id(id)
+                .uri("lb://" + id)
+                .predicates("Path=/" + id + "/**")
+                .filters("StripPrefix=0")
+                .orderNum(order)
+                .enabled(enabled)
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs against a stub connection speaking the PostgreSQL bind marker dialect ($1, $2, ...), parameters are
+ * bound by their position in the statement
+ */
+@ExtendWith(MockitoExtension.class)
+class R2dbcRouteDefinitionRepositoryTest {
+
+    @Mock
+    ConnectionPool connectionPool;
+
+    @Mock
+    ConnectionFactoryMetadata metadata;
+
+    @Mock
+    Connection connection;
+
+    @Mock
+    Statement statement;
+
+    @Mock
+    Result result;
+
+    @Mock
+    Row row;
+
+    @Mock
+    RowMetadata rowMetadata;
+
+    Map<String, Object> columns = new HashMap<>();
+
+    R2dbcRouteDefinitionRepository repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(metadata.getName()).thenReturn("PostgreSQL");
+        lenient().when(connectionPool.getMetadata()).thenReturn(metadata);
+        lenient().doReturn(Mono.just(connection)).when(connectionPool).create();
+        lenient().doReturn(Mono.empty()).when(connection).close();
+        lenient().when(connection.createStatement(anyString())).thenReturn(statement);
+        lenient().when(statement.bind(anyInt(), any())).thenReturn(statement);
+        lenient().when(statement.bindNull(anyInt(), any())).thenReturn(statement);
+        lenient().doReturn(Flux.just(result)).when(statement).execute();
+        lenient().doReturn(Mono.just(1L)).when(result).getRowsUpdated();
+        lenient().doAnswer(invocation -> Flux.just(row).map(invocation.<Function<Readable, Object>>getArgument(0)))
+                .when(result).map(any(Function.class));
+        lenient().doAnswer(invocation -> Flux.just(row)
+                        .map(current -> invocation.<BiFunction<Row, RowMetadata, Object>>getArgument(0).apply(current, rowMetadata)))
+                .when(result).map(any(BiFunction.class));
+        lenient().when(row.get(anyString(), any(Class.class))).thenAnswer(invocation -> columns.get(invocation.<String>getArgument(0)));
+
+        repository = new R2dbcRouteDefinitionRepository(connectionPool, new RouteDefinitionConverter(), new ObjectMapper(),
+                Duration.ofHours(1));
+    }
+
+    @Test
+    void shouldBindMissingValuesAsTypedNulls() {
+        RouteDefinition withoutUri = new RouteDefinition();
+        withoutUri.setId("orders");
+
+        repository.save(Mono.just(withoutUri)).block();
+
+        verify(statement).bind(0, "orders");
+        verify(statement).bindNull(1, String.class);
+        verify(statement, never()).bind(eq(1), any());
+        verify(statement).execute();
+    }
+
+    @Test
+    void shouldInvalidateTheSnapshotAfterSaving() {
+        columns.putAll(Map.of("id", "orders", "uri", "lb://orders", "predicates", "Path=/orders/**", "order_num", 1, "enabled", true));
+        repository.getRouteDefinitions().collectList().block();
+        columns.put("uri", "lb://orders-v2");
+
+        repository.save(Mono.just(new RouteDefinition("orders=lb://orders-v2,Path=/orders/**"))).block();
+
+        assertThat(repository.getRouteDefinitions().collectList().block())
+                .singleElement()
+                .satisfies(route -> assertThat(route.getUri()).hasToString("lb://orders-v2"));
+    }
+
+    @Test
+    void shouldReadStructuredDefinitionsAndSkipUnreadableOnes() {
+        columns.putAll(Map.of(
+                "id", "orders",
+                "uri", "lb://orders",
+                "predicates", "Path=/legacy/**",
+                "predicate_definitions", "[{\"name\":\"Path\",\"args\":{\"pattern\":\"/orders/**\"}}]",
+                "filter_definitions", "not json",
+                "filters", "StripPrefix=1",
+                "order_num", 1,
+                "enabled", true));
+
+        List<RouteDefinition> routes = repository.getRouteDefinitions().collectList().block();
+
+        assertThat(routes).singleElement().satisfies(route -> {
+            assertThat(route.getPredicates()).singleElement()
+                    .satisfies(predicate -> assertThat(predicate.getArgs()).containsEntry("pattern", "/orders/**"));
+            // Falls back to the legacy string
+            assertThat(route.getFilters()).singleElement()
+                    .satisfies(filter -> assertThat(filter.getName()).isEqualTo("StripPrefix"));
+        });
+    }
+
+    @Test
+    void shouldDeleteByIdAndInvalidateTheSnapshot() {
+        columns.putAll(Map.of("id", "orders", "uri", "lb://orders", "order_num", 1, "enabled", true));
+        repository.getRouteDefinitions().collectList().block();
+
+        repository.delete(Mono.just("orders")).block();
+
+        verify(connection).createStatement("DELETE FROM routes WHERE id = $1");
+        verify(statement).bind(0, "orders");
+        repository.getRouteDefinitions().collectList().block();
+        verify(connection, times(2)).createStatement(startsWith("SELECT"));
+    }
+}
@@ -0,0 +1,159 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisRouteDefinitionRepositoryTest {
+
+    @Mock
+    ReactiveStringRedisTemplate redis;
+
+    @Mock
+    ReactiveValueOperations<String, String> values;
+
+    @Mock
+    ReactiveZSetOperations<String, String> zSets;
+
+    @Mock
+    RouteRepository routeRepository;
+
+    /**
+     * Local Redis stand-in: the scripts only touch the keys they are given
+     */
+    Map<String, String> strings = new HashMap<>();
+    Map<String, Map<String, String>> hashes = new HashMap<>();
+    Map<String, Map<String, Double>> sortedSets = new HashMap<>();
+
+    RedisRouteDefinitionRepository repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(redis.hasKey(anyString())).thenAnswer(invocation -> Mono.just(strings.containsKey(invocation.<String>getArgument(0))));
+        lenient().when(redis.opsForValue()).thenReturn(values);
+        lenient().when(values.get(any())).thenAnswer(invocation -> Mono.justOrEmpty(strings.get(invocation.<String>getArgument(0))));
+        lenient().when(redis.opsForZSet()).thenReturn(zSets);
+        lenient().when(zSets.range(anyString(), any())).thenAnswer(invocation -> Flux.fromIterable(range(invocation.getArgument(0))));
+        lenient().when(redis.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(this::runScript);
+
+        repository = new RedisRouteDefinitionRepository(redis, routeRepository, new RouteDefinitionConverter(), new ObjectMapper(),
+                "{gateway-routes}", Duration.ofHours(1), Schedulers.immediate());
+    }
+
+    @Test
+    void shouldServeRoutesWrittenThroughWithoutReadingTheDatabase() {
+        repository.writeThrough(List.of(route("users", 2, true), route("orders", 1, true)), List.of());
+
+        assertThat(repository.getRouteDefinitions().collectList().block())
+                .extracting(RouteDefinition::getId).containsExactly("orders", "users");
+        assertThat(strings).containsEntry("{gateway-routes}:version", "2");
+        verifyNoInteractions(routeRepository);
+    }
+
+    @Test
+    void shouldRemoveDisabledAndDeletedRoutes() {
+        repository.writeThrough(List.of(route("orders", 1, true), route("users", 2, true), route("carts", 3, true)), List.of());
+
+        repository.writeThrough(List.of(route("orders", 1, false), route("users", 2, null)), List.of("carts"));
+
+        assertThat(repository.getRouteDefinitions().collectList().block()).isEmpty();
+        assertThat(hashes).isEmpty();
+        assertThat(sortedSets.get("{gateway-routes}:index")).isEmpty();
+    }
+
+    @Test
+    void shouldSyncFromTheDatabaseOnlyWhenRedisIsEmptyOrOnResync() {
+        when(routeRepository.findByEnabledTrue()).thenReturn(List.of(route("orders", 1, true)));
+
+        assertThat(repository.getRouteDefinitions().collectList().block())
+                .extracting(RouteDefinition::getId).containsExactly("orders");
+
+        repository.invalidate();
+        repository.getRouteDefinitions().collectList().block();
+        verify(routeRepository, times(1)).findByEnabledTrue();
+
+        repository.resync();
+        repository.getRouteDefinitions().collectList().block();
+        verify(routeRepository, times(2)).findByEnabledTrue();
+    }
+
+    @Test
+    void shouldSkipRoutesRemovedWhileReading() {
+        repository.writeThrough(List.of(route("orders", 1, true), route("users", 2, true)), List.of());
+        // Index entry left behind without its hash, as seen between reading the index and the hashes
+        hashes.remove("{gateway-routes}:route:users");
+
+        assertThat(repository.getRouteDefinitions().collectList().block())
+                .extracting(RouteDefinition::getId).containsExactly("orders");
+    }
+
+    private Flux<Object> runScript(InvocationOnMock invocation) {
+        String script = invocation.<RedisScript<?>>getArgument(0).getScriptAsString();
+        List<String> keys = invocation.getArgument(1);
+        List<?> args = invocation.getArgument(2);
+        if (script.contains("HMGET")) {
+            List<String> result = new ArrayList<>();
+            keys.forEach(key -> args.forEach(field -> result.add(hashes.getOrDefault(key, Map.of()).getOrDefault(field, ""))));
+            return Flux.just(result);
+        }
+        if (script.contains("HSET")) {
+            Map<String, String> hash = new LinkedHashMap<>();
+            for (int i = 2; i + 1 < args.size(); i += 2) {
+                hash.put(String.valueOf(args.get(i)), String.valueOf(args.get(i + 1)));
+            }
+            hashes.put(keys.get(2), hash);
+            sortedSets.computeIfAbsent(keys.get(0), key -> new HashMap<>())
+                    .put(String.valueOf(args.get(0)), Double.parseDouble(String.valueOf(args.get(1))));
+        } else {
+            sortedSets.computeIfAbsent(keys.get(0), key -> new HashMap<>()).remove(String.valueOf(args.get(0)));
+            hashes.remove(keys.get(2));
+        }
+        String version = String.valueOf(Long.parseLong(strings.getOrDefault(keys.get(1), "0")) + 1);
+        strings.put(keys.get(1), version);
+        return Flux.just(Long.parseLong(version));
+    }
+
+    private List<String> range(String key) {
+        return sortedSets.getOrDefault(key, Map.of()).entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static RouteEntity route(String id, int order, Boolean enabled) {
+        return RouteEntity.builder()
+                .id(id)
+                .uri("lb://" + id)
+                .predicates("Path=/" + id + "/**")
+                .orderNum(order)
+                .enabled(enabled)
+                .build();
+    }
+}
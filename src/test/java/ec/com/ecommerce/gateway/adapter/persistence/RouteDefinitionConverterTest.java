@@ -0,0 +1,151 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.NameUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class RouteDefinitionConverterTest {
+
+    private final RouteDefinitionConverter converter = new RouteDefinitionConverter();
+
+    @Test
+    void shouldKeepCommasInsideLegacyFilterValues() {
+        List<FilterDefinition> filters = converter.parseFilters("RewritePath=/swagger-ui.*,/swagger-aggregator,StripPrefix=1");
+
+        assertThat(filters).extracting(FilterDefinition::getName).containsExactly("RewritePath", "StripPrefix");
+        assertThat(filters.get(0).getArgs())
+                .containsEntry("regexp", "/swagger-ui.*")
+                .containsEntry("replacement", "/swagger-aggregator");
+    }
+
+    @Test
+    void shouldKeyShortcutFilterArgumentsByPosition() {
+        List<FilterDefinition> filters = converter.parseFilters("StripPrefix=2,DiscoveredService=service,AddRequestHeader=X-Source,gateway");
+
+        assertThat(filters).extracting(FilterDefinition::getName).containsExactly("StripPrefix", "DiscoveredService", "AddRequestHeader");
+        assertThat(filters.get(1).getArgs()).containsExactly(entry(NameUtils.generateName(0), "service"));
+        assertThat(filters.get(2).getArgs())
+                .containsExactly(entry(NameUtils.generateName(0), "X-Source"), entry(NameUtils.generateName(1), "gateway"));
+    }
+
+    @Test
+    void shouldPreferStructuredDefinitionsOverLegacyStrings() {
+        PredicateDefinition path = new PredicateDefinition();
+        path.setName("Path");
+        path.addArg("pattern", "/a,/b");
+
+        RouteEntity entity = RouteEntity.builder()
+                .id("orders")
+                .uri("lb://orders")
+                .predicates("Path=/legacy/**")
+                .predicateDefinitions(List.of(path))
+                .filterDefinitions(List.of())
+                .build();
+
+        RouteDefinition definition = converter.toRouteDefinition(entity);
+
+        assertThat(definition.getPredicates()).hasSize(1);
+        assertThat(definition.getPredicates().get(0).getArgs()).containsEntry("pattern", "/a,/b");
+    }
+
+    @Test
+    void shouldRoundTripRouteDefinitionsLosslessly() {
+        RouteDefinition original = new RouteDefinition("orders=lb://orders,Path=/orders/**");
+        FilterDefinition rewrite = new FilterDefinition();
+        rewrite.setName("RewritePath");
+        rewrite.addArg("regexp", "/orders/(?<segment>.*)");
+        rewrite.addArg("replacement", "/${segment}");
+        original.setFilters(List.of(rewrite));
+
+        RouteDefinition restored = converter.toRouteDefinition(converter.toRouteEntity(original));
+
+        assertThat(restored.getPredicates()).isEqualTo(original.getPredicates());
+        assertThat(restored.getFilters()).isEqualTo(original.getFilters());
+        assertThat(restored.getUri()).hasToString("lb://orders");
+    }
+
+    @Test
+    void shouldReuseConvertedDefinitionForUnchangedContent() {
+        RouteEntity first = RouteEntity.builder().id("orders").uri("lb://orders").predicates("Path=/orders/**").build();
+        RouteEntity same = RouteEntity.builder().id("orders").uri("lb://orders").predicates("Path=/orders/**").build();
+        RouteEntity changed = RouteEntity.builder().id("orders").uri("lb://orders").predicates("Path=/v2/orders/**").build();
+
+        assertThat(converter.toRouteDefinition(same)).isSameAs(converter.toRouteDefinition(first));
+        assertThat(converter.toRouteDefinition(changed)).isNotSameAs(converter.toRouteDefinition(first));
+        assertThat(converter.contentHash(same)).isEqualTo(converter.contentHash(first));
+    }
+
+    @Test
+    void shouldKeyTheCacheOnTheStoredContentHash() {
+        RouteEntity stored = converter.prepareForWrite(RouteEntity.builder().id("orders").uri("lb://orders").predicates("Path=/orders/**").build());
+        RouteEntity reread = RouteEntity.builder().id("orders").uri("lb://orders").predicates("Path=/orders/**")
+                .contentHash(stored.getContentHash()).build();
+        RouteEntity changed = converter.prepareForWrite(RouteEntity.builder().id("orders").uri("lb://orders").predicates("Path=/v2/orders/**").build());
+
+        assertThat(converter.toRouteDefinition(reread)).isSameAs(converter.toRouteDefinition(stored));
+        assertThat(converter.toRouteDefinition(changed)).isNotSameAs(converter.toRouteDefinition(stored));
+    }
+
+    @Test
+    void shouldKeepCommasInsideLegacyPredicateValues() {
+        List<PredicateDefinition> predicates = converter.parsePredicates("Path=/orders/**,Method=GET,POST,Header[header=X-Id;regexp=\\d{1,3}]");
+
+        assertThat(predicates).extracting(PredicateDefinition::getName).containsExactly("Path", "Method", "Header");
+        assertThat(predicates.get(0).getArgs()).containsExactly(entry("pattern", "/orders/**"));
+        assertThat(predicates.get(1).getArgs()).containsExactly(entry("methods", "GET,POST"));
+        assertThat(predicates.get(2).getArgs()).containsEntry("regexp", "\\d{1,3}");
+    }
+
+    @Test
+    void shouldParseJsonDefinitionsSentByRouteEvents() {
+        RouteEntity route = converter.ensureStructuredDefinitions(RouteEntity.builder()
+                .id("orders")
+                .uri("lb://orders")
+                .predicates("[{\"name\":\"Path\",\"args\":{\"pattern\":\"/orders/**,/v2/orders/**\"}}]")
+                .filters("[]")
+                .build());
+
+        assertThat(route.getPredicateDefinitions()).singleElement().satisfies(predicate -> {
+            assertThat(predicate.getName()).isEqualTo("Path");
+            assertThat(predicate.getArgs()).containsExactly(entry("pattern", "/orders/**,/v2/orders/**"));
+        });
+        assertThat(route.getFilterDefinitions()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepTheRecentlyUsedDefinitionsOfATableLargerThanTheInitialCache() {
+        RouteDefinitionConverter small = new RouteDefinitionConverter(2);
+        List<RouteEntity> routes = List.of(route("a"), route("b"), route("c"));
+        small.reserve(routes.size());
+
+        List<RouteDefinition> first = routes.stream().map(small::toRouteDefinition).toList();
+        List<RouteDefinition> second = routes.stream().map(small::toRouteDefinition).toList();
+
+        for (int i = 0; i < routes.size(); i++) {
+            assertThat(second.get(i)).isSameAs(first.get(i));
+        }
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedDefinition() {
+        RouteDefinitionConverter small = new RouteDefinitionConverter(2);
+        RouteDefinition a = small.toRouteDefinition(route("a"));
+        small.toRouteDefinition(route("b"));
+        small.toRouteDefinition(route("a"));
+        small.toRouteDefinition(route("c"));
+
+        assertThat(small.toRouteDefinition(route("a"))).isSameAs(a);
+    }
+
+    private static RouteEntity route(String id) {
+        return RouteEntity.builder().id(id).uri("lb://" + id).predicates("Path=/" + id + "/**").build();
+    }
+}
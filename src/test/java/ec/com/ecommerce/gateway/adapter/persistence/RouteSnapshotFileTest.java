@@ -0,0 +1,69 @@
+package ec.com.ecommerce.gateway.adapter.persistence;
+
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteSnapshotFileTest {
+
+    private final RouteDefinitionConverter converter = new RouteDefinitionConverter();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRestoreWrittenSnapshotExactly() throws Exception {
+        RouteSnapshotFile file = new RouteSnapshotFile(directory.resolve("routes.snapshot"));
+        RouteDefinitionSnapshot snapshot = RouteDefinitionSnapshot.of(42, List.of(
+                converter.toRouteDefinition(route("orders", "Path=/orders/**", "RewritePath=/orders/(?<segment>.*),/${segment}")),
+                converter.toRouteDefinition(route("users", "Path=/users/**,Method=GET", "StripPrefix=1"))));
+
+        file.write(snapshot);
+        RouteDefinitionSnapshot restored = file.read().orElseThrow();
+
+        assertThat(restored.version()).isEqualTo(42);
+        assertThat(restored.routes()).isEqualTo(snapshot.routes());
+        assertThat(restored.find("users")).isPresent();
+    }
+
+    @Test
+    void shouldIgnoreCorruptedFile() throws Exception {
+        Path path = directory.resolve("routes.snapshot");
+        RouteSnapshotFile file = new RouteSnapshotFile(path);
+        file.write(RouteDefinitionSnapshot.of(1, List.of(converter.toRouteDefinition(route("orders", "Path=/orders/**", "StripPrefix=1")))));
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 3] ^= 0x55;
+        Files.write(path, bytes, StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertThat(file.read()).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreMissingAndTruncatedFiles() throws Exception {
+        Path path = directory.resolve("routes.snapshot");
+        RouteSnapshotFile file = new RouteSnapshotFile(path);
+        assertThat(file.read()).isEmpty();
+
+        Files.write(path, new byte[]{0x47, 0x57});
+        assertThat(file.read()).isEmpty();
+    }
+
+    private static RouteEntity route(String id, String predicates, String filters) {
+        return RouteEntity.builder()
+                .id(id)
+                .uri("lb://" + id)
+                .predicates(predicates)
+                .filters(filters)
+                .orderNum(3)
+                .enabled(true)
+                .build();
+    }
+}
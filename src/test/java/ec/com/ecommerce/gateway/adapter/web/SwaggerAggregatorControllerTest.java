@@ -0,0 +1,97 @@
+package ec.com.ecommerce.gateway.adapter.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.application.service.OpenApiSpecAggregator;
+import ec.com.ecommerce.gateway.application.service.SwaggerAggregatorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SwaggerAggregatorControllerTest {
+
+    @Mock
+    SwaggerAggregatorService swaggerAggregatorService;
+
+    @Mock
+    OpenApiSpecAggregator openApiSpecAggregator;
+
+    SwaggerAggregatorController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new SwaggerAggregatorController(swaggerAggregatorService, openApiSpecAggregator, new ObjectMapper(),
+                Schedulers.immediate());
+    }
+
+    @Test
+    void shouldRenderPageOnceForTheSameServiceList() {
+        List<String> services = List.of("orders", "users");
+        when(swaggerAggregatorService.getServicesWithSwagger()).thenReturn(services);
+
+        ResponseEntity<byte[]> first = controller.getSwaggerAggregatorPage(new HttpHeaders());
+        ResponseEntity<byte[]> second = controller.getSwaggerAggregatorPage(new HttpHeaders());
+
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).contains("/docs/orders/swagger-ui/index.html");
+        assertThat(first.getHeaders().getETag()).isNotBlank();
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForMatchingETag() {
+        when(swaggerAggregatorService.getServicesWithSwagger()).thenReturn(List.of("orders"));
+        String etag = controller.getServicesInfo(new HttpHeaders()).getHeaders().getETag();
+
+        HttpHeaders revalidation = new HttpHeaders();
+        revalidation.setIfNoneMatch(etag);
+        ResponseEntity<byte[]> response = controller.getServicesInfo(revalidation);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+    }
+
+    @Test
+    void shouldRenderAgainWhenTheServiceListChanged() {
+        when(swaggerAggregatorService.getServicesWithSwagger()).thenReturn(List.of("orders"), List.of("orders", "users"));
+
+        String before = controller.getServicesInfo(new HttpHeaders()).getHeaders().getETag();
+        ResponseEntity<byte[]> after = controller.getServicesInfo(new HttpHeaders());
+
+        assertThat(after.getHeaders().getETag()).isNotEqualTo(before);
+        assertThat(new String(after.getBody(), StandardCharsets.UTF_8)).contains("\"count\":2");
+    }
+
+    @Test
+    void shouldReportSuccessfulRouteGeneration() {
+        ResponseEntity<Map<String, String>> response = controller.generateRoutes().block();
+
+        verify(swaggerAggregatorService).generateAggregatedSwaggerRoutes();
+        assertThat(response.getBody()).containsEntry("status", "success");
+    }
+
+    @Test
+    void shouldAnswerServerErrorWhenGenerationFails() {
+        doThrow(new IllegalStateException("route store down")).when(swaggerAggregatorService).generateAggregatedSwaggerRoutes();
+
+        ResponseEntity<Map<String, String>> response = controller.generateRoutes().block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody()).containsEntry("status", "error");
+    }
+}
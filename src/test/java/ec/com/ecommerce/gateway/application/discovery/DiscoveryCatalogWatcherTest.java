@@ -0,0 +1,105 @@
+package ec.com.ecommerce.gateway.application.discovery;
+
+import ec.com.ecommerce.gateway.application.leader.LeaderElection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DiscoveryCatalogWatcherTest {
+
+    @Mock
+    DiscoveryClient discoveryClient;
+
+    @Mock
+    LeaderElection leaderElection;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    DiscoveryCatalogWatcher watcher;
+
+    @Captor
+    ArgumentCaptor<DiscoveryCatalogChangedEvent> eventCaptor;
+
+    @Test
+    void shouldPublishInitialCatalogThenOnlyRealChanges() {
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(discoveryClient.getServices()).thenReturn(List.of("orders", "users"));
+        when(discoveryClient.getInstances("orders")).thenReturn(List.of(instance("orders", "o1", 8081)));
+        when(discoveryClient.getInstances("users")).thenReturn(List.of(instance("users", "u1", 8082)));
+
+        watcher.check();
+        watcher.check();
+
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        DiscoveryCatalogChangedEvent initial = eventCaptor.getValue();
+        assertThat(initial.initial()).isTrue();
+        assertThat(initial.services()).containsExactly("orders", "users");
+        assertThat(initial.servicesWith(ServiceCatalogChange.Type.ADDED)).containsExactly("orders", "users");
+    }
+
+    @Test
+    void shouldReportAddedRemovedAndChangedServices() {
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(discoveryClient.getServices()).thenReturn(List.of("orders", "users"));
+        when(discoveryClient.getInstances("orders")).thenReturn(List.of(instance("orders", "o1", 8081)));
+        when(discoveryClient.getInstances("users")).thenReturn(List.of(instance("users", "u1", 8082)));
+        watcher.check();
+        clearInvocations(eventPublisher);
+
+        when(discoveryClient.getServices()).thenReturn(List.of("orders", "payments"));
+        when(discoveryClient.getInstances("orders")).thenReturn(List.of(instance("orders", "o1", 8081), instance("orders", "o2", 8081)));
+        when(discoveryClient.getInstances("payments")).thenReturn(List.of(instance("payments", "p1", 8083)));
+        watcher.check();
+
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        DiscoveryCatalogChangedEvent event = eventCaptor.getValue();
+        assertThat(event.initial()).isFalse();
+        assertThat(event.hasMembershipChanges()).isTrue();
+        assertThat(event.servicesWith(ServiceCatalogChange.Type.ADDED)).containsExactly("payments");
+        assertThat(event.servicesWith(ServiceCatalogChange.Type.REMOVED)).containsExactly("users");
+        assertThat(event.servicesWith(ServiceCatalogChange.Type.CHANGED)).containsExactly("orders");
+    }
+
+    @Test
+    void shouldNotPollDiscoveryWhenNotTheLeader() {
+        when(leaderElection.isLeader()).thenReturn(false);
+
+        watcher.check();
+
+        verifyNoInteractions(discoveryClient, eventPublisher);
+    }
+
+    @Test
+    void shouldRetryTheSameChangeWhenProcessingFailed() {
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(discoveryClient.getServices()).thenReturn(List.of("orders"));
+        when(discoveryClient.getInstances("orders")).thenReturn(List.of(instance("orders", "o1", 8081)));
+        doThrow(new IllegalStateException("boom")).doNothing().when(eventPublisher).publishEvent(any(Object.class));
+
+        watcher.check();
+        watcher.check();
+
+        verify(eventPublisher, times(2)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getAllValues()).allMatch(DiscoveryCatalogChangedEvent::initial);
+    }
+
+    private static ServiceInstance instance(String serviceId, String instanceId, int port) {
+        return new DefaultServiceInstance(instanceId, serviceId, "10.0.0.1", port, false);
+    }
+}
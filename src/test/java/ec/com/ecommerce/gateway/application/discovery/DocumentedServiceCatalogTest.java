@@ -0,0 +1,58 @@
+package ec.com.ecommerce.gateway.application.discovery;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentedServiceCatalogTest {
+
+    @Mock
+    DiscoveryClient discoveryClient;
+
+    @InjectMocks
+    DocumentedServiceCatalog catalog;
+
+    @Test
+    void shouldResolveDocsNamesAndServiceIdsOfDiscoveredServices() {
+        when(discoveryClient.getServices()).thenReturn(List.of("orders-service", "users", "gateway-server"));
+
+        catalog.refresh();
+
+        assertThat(catalog.resolve("orders")).contains("orders-service");
+        assertThat(catalog.resolve("Orders-Service")).contains("orders-service");
+        assertThat(catalog.resolve("users")).contains("users");
+        assertThat(catalog.docsNames()).containsExactly("orders", "users");
+    }
+
+    @Test
+    void shouldRejectUnknownAndInfrastructureServices() {
+        when(discoveryClient.getServices()).thenReturn(List.of("orders-service", "gateway-server", "config-server"));
+
+        catalog.refresh();
+
+        assertThat(catalog.resolve("payments")).isEmpty();
+        assertThat(catalog.resolve("gateway-server")).isEmpty();
+        assertThat(catalog.resolve("config")).isEmpty();
+        assertThat(catalog.resolve(null)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepLastCatalogWhenDiscoveryFails() {
+        when(discoveryClient.getServices()).thenReturn(List.of("orders-service"))
+                .thenThrow(new IllegalStateException("discovery down"));
+
+        catalog.refresh();
+        catalog.refresh();
+
+        assertThat(catalog.resolve("orders")).contains("orders-service");
+    }
+}
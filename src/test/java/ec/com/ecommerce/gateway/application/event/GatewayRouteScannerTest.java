@@ -1,7 +1,9 @@
 package ec.com.ecommerce.gateway.application.event;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.BeforeEach;
+import ec.com.ecommerce.gateway.application.discovery.DiscoveryCatalogChangedEvent;
+import ec.com.ecommerce.gateway.application.discovery.ServiceCatalogChange;
+import ec.com.ecommerce.gateway.application.leader.LeaderElection;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -9,59 +11,91 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
-import org.springframework.context.support.GenericApplicationContext;
-import org.springframework.kafka.core.KafkaTemplate;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class GatewayRouteScannerTest {
 
     @Mock
-    DiscoveryClient discoveryClient;
+    RouteEventPublisher routeEventPublisher;
 
     @Mock
-    KafkaTemplate<String, String> kafkaTemplate;
+    ObjectMapper objectMapper;
 
     @Mock
-    ObjectMapper objectMapper;
+    LeaderElection leaderElection;
 
     @InjectMocks
     GatewayRouteScanner scanner;
 
     @Captor
-    ArgumentCaptor<String> topicCaptor;
+    ArgumentCaptor<Map<String, GatewayRouteEvent>> eventsCaptor;
 
-    @Captor
-    ArgumentCaptor<String> keyCaptor;
+    @Test
+    void shouldPublishEventForEachService() throws Exception {
+        List<String> services = Arrays.asList("service-a", "service-b");
+        when(leaderElection.isLeader()).thenReturn(true);
 
-    @Captor
-    ArgumentCaptor<String> payloadCaptor;
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        when(routeEventPublisher.publishAll(eq("gateway-topic"), anyMap())).thenReturn(published(2, 0));
+
+        scanner.onCatalogChanged(new DiscoveryCatalogChangedEvent(services, List.of(
+                new ServiceCatalogChange("service-a", ServiceCatalogChange.Type.ADDED),
+                new ServiceCatalogChange("service-b", ServiceCatalogChange.Type.ADDED)), true));
 
+        verify(routeEventPublisher).publishAll(eq("gateway-topic"), eventsCaptor.capture());
+
+        Map<String, GatewayRouteEvent> events = eventsCaptor.getValue();
+        assertThat(events).containsOnlyKeys(services);
+        assertThat(events.get("service-a").getUri()).isEqualTo("lb://service-a");
+        assertThat(events.values()).allMatch(e -> e.getPredicates().equals("{}"));
+    }
 
     @Test
-    void shouldPublishEventForEachService() throws Exception {
-        List<String> services = Arrays.asList("service-a", "service-b");
-        when(discoveryClient.getServices()).thenReturn(services);
+    void shouldOnlyPublishEventsForAddedServicesAfterTheInitialCatalog() throws Exception {
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        when(routeEventPublisher.publishAll(eq("gateway-topic"), anyMap())).thenReturn(published(1, 0));
+
+        scanner.onCatalogChanged(new DiscoveryCatalogChangedEvent(List.of("service-a", "service-b", "service-c"), List.of(
+                new ServiceCatalogChange("service-b", ServiceCatalogChange.Type.CHANGED),
+                new ServiceCatalogChange("service-c", ServiceCatalogChange.Type.ADDED)), false));
 
+        verify(routeEventPublisher).publishAll(eq("gateway-topic"), eventsCaptor.capture());
+        assertThat(eventsCaptor.getValue()).containsOnlyKeys("service-c");
+    }
+
+    @Test
+    void shouldFailWhenRouteEventsCouldNotBePublished() throws Exception {
+        when(leaderElection.isLeader()).thenReturn(true);
         when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        when(routeEventPublisher.publishAll(eq("gateway-topic"), anyMap())).thenReturn(published(1, 1));
 
-        scanner.onApplicationEvent(new org.springframework.context.event.ContextRefreshedEvent(new GenericApplicationContext()));
+        assertThatThrownBy(() -> scanner.onCatalogChanged(new DiscoveryCatalogChangedEvent(List.of("service-a", "service-b"),
+                List.of(), true)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("1 of 2 route events");
+    }
 
-        verify(kafkaTemplate, times(2)).send(topicCaptor.capture(), keyCaptor.capture(), payloadCaptor.capture());
+    @Test
+    void shouldNotScanServicesWhenNotTheLeader() {
+        when(leaderElection.isLeader()).thenReturn(false);
 
-        List<String> topics = topicCaptor.getAllValues();
-        List<String> keys = keyCaptor.getAllValues();
-        List<String> payloads = payloadCaptor.getAllValues();
+        scanner.onCatalogChanged(new DiscoveryCatalogChangedEvent(List.of("service-a"), List.of(
+                new ServiceCatalogChange("service-a", ServiceCatalogChange.Type.ADDED)), true));
 
-        assertThat(topics).allMatch(t -> t.equals("gateway-topic"));
-        assertThat(keys).containsExactlyInAnyOrderElementsOf(services);
-        assertThat(payloads).allMatch(p -> p.equals("{}"));
+        verifyNoInteractions(routeEventPublisher);
     }
-}
 
+    private static CompletableFuture<RouteEventPublisher.PublishResult> published(int published, int failed) {
+        return CompletableFuture.completedFuture(new RouteEventPublisher.PublishResult("gateway-topic", published, failed));
+    }
+}
@@ -0,0 +1,74 @@
+package ec.com.ecommerce.gateway.application.event;
+
+import ec.com.ecommerce.gateway.application.service.RouteRefreshCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaListenerBackpressureTest {
+
+    @Mock
+    KafkaListenerEndpointRegistry registry;
+
+    @Mock
+    RouteRefreshCoalescer routeRefreshCoalescer;
+
+    @Mock
+    MessageListenerContainer gatewayListener;
+
+    @Mock
+    MessageListenerContainer routeConfigListener;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    KafkaListenerBackpressure backpressure;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(registry.getListenerContainer(GatewayEventListener.LISTENER_ID)).thenReturn(gatewayListener);
+        lenient().when(registry.getListenerContainer(RouteConfigEventListener.LISTENER_ID)).thenReturn(routeConfigListener);
+        backpressure = new KafkaListenerBackpressure(registry, routeRefreshCoalescer, meterRegistry, 100, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void shouldPauseListenersWhileTheBacklogIsAboveMaxPending() {
+        when(routeRefreshCoalescer.pending()).thenReturn(99, 100, 150);
+
+        backpressure.check();
+        verifyNoInteractions(gatewayListener, routeConfigListener);
+
+        backpressure.check();
+        backpressure.check();
+
+        assertThat(backpressure.isPaused()).isTrue();
+        verify(gatewayListener).pause();
+        verify(routeConfigListener).pause();
+        assertThat(meterRegistry.get("gateway.kafka.listener.pauses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldResumeListenersOnceTheBacklogHasDrainedToHalf() {
+        when(routeRefreshCoalescer.pending()).thenReturn(100, 51, 50);
+
+        backpressure.check();
+        backpressure.check();
+        verify(gatewayListener, never()).resume();
+
+        backpressure.check();
+
+        assertThat(backpressure.isPaused()).isFalse();
+        verify(gatewayListener).resume();
+        verify(routeConfigListener).resume();
+    }
+}
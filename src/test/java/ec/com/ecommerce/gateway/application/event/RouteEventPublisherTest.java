@@ -0,0 +1,67 @@
+package ec.com.ecommerce.gateway.application.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RouteEventPublisherTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    KafkaTemplate<String, String> kafkaTemplate;
+
+    RouteEventPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        publisher = new RouteEventPublisher(kafkaTemplate, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void shouldSendAllEventsBeforeAnyIsAcknowledged() {
+        CompletableFuture<SendResult<String, String>> first = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, String>> second = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq("gateway-topic"), eq("service-a"), anyString())).thenReturn(first);
+        when(kafkaTemplate.send(eq("gateway-topic"), eq("service-b"), anyString())).thenReturn(second);
+
+        Map<String, GatewayRouteEvent> events = new LinkedHashMap<>();
+        events.put("service-a", new GatewayRouteEvent("service-a", "lb://service-a", "[]", "[]"));
+        events.put("service-b", new GatewayRouteEvent("service-b", "lb://service-b", "[]", "[]"));
+        CompletableFuture<RouteEventPublisher.PublishResult> result = publisher.publishAll("gateway-topic", events);
+
+        verify(kafkaTemplate, times(2)).send(eq("gateway-topic"), anyString(), anyString());
+        assertThat(result).isNotDone();
+        assertThat(meterRegistry.get(RouteEventPublisher.IN_FLIGHT).gauge().value()).isEqualTo(2);
+
+        first.complete(null);
+        second.completeExceptionally(new IllegalStateException("broker unavailable"));
+
+        assertThat(result).isCompletedWithValue(new RouteEventPublisher.PublishResult("gateway-topic", 1, 1));
+        assertThat(meterRegistry.get(RouteEventPublisher.SENT).tag("result", "success").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RouteEventPublisher.SENT).tag("result", "failure").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RouteEventPublisher.SEND_LATENCY).timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RouteEventPublisher.IN_FLIGHT).gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldCountSendsRejectedByTheProducerAsFailures() {
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenThrow(new IllegalStateException("buffer exhausted"));
+
+        CompletableFuture<RouteEventPublisher.PublishResult> result = publisher.publish("gateway-route-config", "orders", "{}");
+
+        assertThat(result).isCompletedWithValue(new RouteEventPublisher.PublishResult("gateway-route-config", 0, 1));
+        assertThat(meterRegistry.get(RouteEventPublisher.IN_FLIGHT).gauge().value()).isZero();
+    }
+}
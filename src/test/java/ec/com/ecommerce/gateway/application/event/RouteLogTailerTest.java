@@ -0,0 +1,167 @@
+package ec.com.ecommerce.gateway.application.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.adapter.persistence.KafkaRouteDefinitionRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionSnapshot;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteTableChange;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@EmbeddedKafka(partitions = 2)
+class RouteLogTailerTest {
+
+    static final String TOPIC = "gateway-routes";
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    RouteRepository routeRepository = mock(RouteRepository.class);
+
+    KafkaAdmin kafkaAdmin;
+    NewTopic topic = TopicBuilder.name(TOPIC).partitions(2).replicas(1).compact().build();
+    KafkaTemplate<String, String> kafkaTemplate;
+    KafkaRouteDefinitionRepository repository;
+    RouteLogTailer tailer;
+
+    @BeforeEach
+    void setUp(EmbeddedKafkaBroker broker) {
+        kafkaAdmin = new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()));
+        kafkaAdmin.createOrModifyTopics(topic);
+        kafkaTemplate = spy(new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(broker),
+                new StringSerializer(), new StringSerializer())));
+        repository = new KafkaRouteDefinitionRepository(kafkaTemplate, routeRepository, new RouteDefinitionConverter(),
+                objectMapper, TOPIC, Duration.ofHours(1), Schedulers.immediate());
+
+        DefaultKafkaConsumerFactory<String, String> consumerFactory = new DefaultKafkaConsumerFactory<>(
+                KafkaTestUtils.consumerProps("route-log-test", "false", broker), new StringDeserializer(), new StringDeserializer());
+        tailer = new RouteLogTailer(repository, consumerFactory, kafkaAdmin, topic, routeRepository, new RouteDefinitionConverter(),
+                eventPublisher, Schedulers.immediate(), Duration.ofSeconds(30), Duration.ofMillis(100), true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        tailer.stop();
+        kafkaTemplate.destroy();
+    }
+
+    @Test
+    void shouldMaterializeTheLogOnStartupAndTailItAfterwards() throws Exception {
+        kafkaTemplate.send(TOPIC, "orders", json(route("orders", 1))).get();
+        kafkaTemplate.send(TOPIC, "users", json(route("users", 2))).get();
+        kafkaTemplate.send(TOPIC, "users", null).get();
+
+        tailer.start();
+
+        assertThat(repository.isMaterialized()).isTrue();
+        assertThat(repository.getRouteDefinitions().collectList().block())
+                .extracting(RouteDefinition::getId).containsExactly("orders");
+        verify(eventPublisher).publishEvent(any(RefreshRoutesEvent.class));
+
+        kafkaTemplate.send(TOPIC, "carts", json(route("carts", 3))).get();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(repository.snapshot().find("carts")).isPresent());
+        verify(eventPublisher, times(2)).publishEvent(any(RefreshRoutesEvent.class));
+        verifyNoInteractions(routeRepository);
+    }
+
+    @Test
+    void shouldOnlyFillTheRouteTableWhileReadingTheLogOnStartup() throws Exception {
+        repository.restore(RouteDefinitionSnapshot.of(1, List.of()));
+        for (int order = 1; order <= 5; order++) {
+            kafkaTemplate.send(TOPIC, "orders", json(route("orders", order))).get();
+        }
+        List<RouteTableChange> changes = new CopyOnWriteArrayList<>();
+        repository.changes().subscribe(changes::add);
+
+        tailer.start();
+        repository.getRouteDefinitions().collectList().block();
+
+        assertThat(changes).extracting(RouteTableChange::routeId).containsExactly("orders");
+        assertThat(repository.snapshot().find("orders")).hasValueSatisfying(route -> assertThat(route.getOrder()).isEqualTo(5));
+    }
+
+    @Test
+    void shouldSkipRecordsWithoutAKey() throws Exception {
+        kafkaTemplate.send(TOPIC, null, json(route("keyless", 1))).get();
+        kafkaTemplate.send(TOPIC, "orders", json(route("orders", 2))).get();
+
+        tailer.start();
+
+        assertThat(repository.isMaterialized()).isTrue();
+        assertThat(repository.getRouteDefinitions().collectList().block())
+                .extracting(RouteDefinition::getId).containsExactly("orders");
+
+        kafkaTemplate.send(TOPIC, null, json(route("keyless", 1))).get();
+        kafkaTemplate.send(TOPIC, "carts", json(route("carts", 3))).get();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(repository.snapshot().find("carts")).isPresent());
+    }
+
+    @Test
+    void shouldKeepDisabledRoutesInTheRouteTable() throws Exception {
+        kafkaTemplate.send(TOPIC, "orders", json(route("orders", 1))).get();
+        kafkaTemplate.send(TOPIC, "users", json(route("users", 2, null))).get();
+
+        tailer.start();
+
+        assertThat(repository.getRouteDefinitions().collectList().block())
+                .extracting(RouteDefinition::getId).containsExactly("orders");
+
+        kafkaTemplate.send(TOPIC, "orders", json(route("orders", 1, false))).get();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(repository.snapshot().find("orders")).isEmpty());
+        assertThat(repository.materializedRoutes()).extracting(RouteEntity::getId).containsExactlyInAnyOrder("orders", "users");
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), isNull());
+    }
+
+    private String json(RouteEntity route) throws Exception {
+        return objectMapper.writeValueAsString(route);
+    }
+
+    private RouteEntity route(String id, int order) {
+        return route(id, order, true);
+    }
+
+    private RouteEntity route(String id, int order, Boolean enabled) {
+        return RouteEntity.builder()
+                .id(id)
+                .uri("lb://" + id)
+                .predicates("Path=/" + id + "/**")
+                .filters("StripPrefix=0")
+                .orderNum(order)
+                .enabled(enabled)
+                .build();
+    }
+}
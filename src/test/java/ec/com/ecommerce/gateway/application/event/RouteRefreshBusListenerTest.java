@@ -0,0 +1,126 @@
+package ec.com.ecommerce.gateway.application.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
+import ec.com.ecommerce.gateway.application.service.RouteRefreshBus;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteRefreshBusListenerTest {
+
+    @Mock
+    RouteRefreshBus routeRefreshBus;
+
+    @Mock
+    ReactiveStringRedisTemplate redis;
+
+    @Mock
+    RouteSnapshotRepository routeSnapshotRepository;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    RouteRefreshBusListener listener;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(routeRefreshBus.getNodeId()).thenReturn("this-node");
+        listener = new RouteRefreshBusListener(routeRefreshBus, redis, routeSnapshotRepository, eventPublisher, new ObjectMapper());
+    }
+
+    @Test
+    void shouldApplyAChangeOfAnotherNodeAsASnapshotDelta() {
+        RouteEntity orders = route("orders");
+        when(routeSnapshotRepository.applyChange(orders)).thenReturn(true);
+
+        listener.onMessage(change(1, "other-node", orders));
+
+        verify(routeSnapshotRepository, never()).invalidate();
+        ArgumentCaptor<RefreshRoutesEvent> event = ArgumentCaptor.forClass(RefreshRoutesEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getMetadata()).isEqualTo(Map.of(RouteSnapshotRepository.ROUTE_ID_METADATA, "orders"));
+    }
+
+    @Test
+    void shouldSkipItsOwnChangesButAdvanceItsVersion() {
+        listener.onMessage(change(1, "this-node", route("orders")));
+        listener.onMessage(change(2, "this-node", route("users")));
+
+        verifyNoInteractions(routeSnapshotRepository, eventPublisher);
+    }
+
+    @Test
+    void shouldIgnoreVersionsAlreadyApplied() {
+        when(routeSnapshotRepository.applyChange(any())).thenReturn(true);
+        listener.onMessage(change(2, "other-node", route("orders")));
+
+        listener.onMessage(change(2, "other-node", route("orders")));
+        listener.onMessage(change(1, "other-node", route("users")));
+
+        verify(routeSnapshotRepository, times(1)).applyChange(any());
+    }
+
+    @Test
+    void shouldReloadAllRoutesWhenVersionsWereMissed() {
+        when(routeSnapshotRepository.applyChange(any())).thenReturn(true);
+        listener.onMessage(change(1, "other-node", route("orders")));
+
+        listener.onMessage(change(3, "other-node", route("users")));
+
+        verify(routeSnapshotRepository, times(1)).applyChange(any());
+        verify(routeSnapshotRepository).invalidate();
+    }
+
+    @Test
+    void shouldReloadAllRoutesWhenADeltaCannotBeApplied() {
+        when(routeSnapshotRepository.applyChange(any())).thenReturn(false);
+
+        listener.onMessage(change(1, "other-node", route("orders")));
+
+        verify(routeSnapshotRepository).invalidate();
+        ArgumentCaptor<RefreshRoutesEvent> event = ArgumentCaptor.forClass(RefreshRoutesEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getMetadata()).isNullOrEmpty();
+    }
+
+    @Test
+    void shouldReloadAllRoutesWhenAVersionSeenAtTheLastCheckNeverArrived() {
+        listener.checkForGap(5);
+        listener.checkForGap(6);
+        verify(routeSnapshotRepository, never()).invalidate();
+
+        listener.checkForGap(6);
+
+        verify(routeSnapshotRepository).invalidate();
+    }
+
+    private static RouteChangeMessage change(long version, String originNodeId, RouteEntity route) {
+        return RouteChangeMessage.builder()
+                .type(RouteChangeMessage.Type.CHANGE)
+                .version(version)
+                .originNodeId(originNodeId)
+                .routes(List.of(route))
+                .deletedRouteIds(List.of())
+                .build();
+    }
+
+    private static RouteEntity route(String id) {
+        return RouteEntity.builder().id(id).uri("lb://" + id).predicates("Path=/" + id + "/**").enabled(true).build();
+    }
+}
@@ -0,0 +1,134 @@
+package ec.com.ecommerce.gateway.application.leader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisLeaderElectionTest {
+
+    @Mock
+    ReactiveStringRedisTemplate redis;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    Scheduler blockingScheduler = Schedulers.newSingle("test-blocking");
+    RedisLeaderElection election;
+
+    @BeforeEach
+    void setUp() {
+        election = new RedisLeaderElection(redis, eventPublisher, "gateway-route-generation", Duration.ofSeconds(15),
+                Duration.ofSeconds(5), clock, blockingScheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockingScheduler.dispose();
+    }
+
+    @Test
+    void shouldPublishLeadershipOnTheBlockingSchedulerWhenTheLeaseIsAcquired() {
+        leaseReplies(7L);
+        AtomicReference<String> listenerThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            listenerThread.set(Thread.currentThread().getName());
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+
+        election.acquireOrRenew().block();
+
+        assertThat(election.currentToken()).hasValue(7);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(eventPublisher).publishEvent(new LeadershipGrantedEvent(7)));
+        assertThat(listenerThread.get()).startsWith("test-blocking");
+    }
+
+    @Test
+    void shouldExtendTheLeaseOnRenewalWithoutPublishingAgain() {
+        leaseReplies(7L, 7L);
+        election.acquireOrRenew().block();
+
+        clock.advance(Duration.ofSeconds(5));
+        election.acquireOrRenew().block();
+        clock.advance(Duration.ofSeconds(9));
+
+        assertThat(election.currentToken()).hasValue(7);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(eventPublisher).publishEvent(new LeadershipGrantedEvent(7)));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldStopLeadingWhenTheLeaseIsTakenOrCannotBeRenewed() {
+        leaseReplies(7L, -1L, 8L);
+        election.acquireOrRenew().block();
+
+        election.acquireOrRenew().block();
+        assertThat(election.currentToken()).isEmpty();
+
+        election.acquireOrRenew().block();
+        assertThat(election.currentToken()).hasValue(8);
+        // No renewal reached Redis within the lease, minus the safety margin
+        clock.advance(Duration.ofSeconds(12));
+        assertThat(election.currentToken()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void leaseReplies(Long first, Long... next) {
+        Flux<Long>[] replies = new Flux[next.length];
+        for (int i = 0; i < next.length; i++) {
+            replies[i] = Flux.just(next[i]);
+        }
+        when(redis.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(first), replies);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
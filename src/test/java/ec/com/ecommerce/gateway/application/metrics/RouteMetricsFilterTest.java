@@ -0,0 +1,75 @@
+package ec.com.ecommerce.gateway.application.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+@ExtendWith(MockitoExtension.class)
+class RouteMetricsFilterTest {
+
+    @Mock
+    RouteMetrics routeMetrics;
+
+    @Mock
+    GatewayFilterChain chain;
+
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/orders/1"));
+
+    @BeforeEach
+    void setUp() {
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id("orders")
+                .uri("lb://orders-service")
+                .predicate(serverWebExchange -> true)
+                .build());
+    }
+
+    @Test
+    void shouldRecordTheStatusSetByTheChain() {
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            invocation.<MockServerWebExchange>getArgument(0).getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+            return Mono.empty();
+        });
+
+        new RouteMetricsFilter(routeMetrics).filter(exchange, chain).block();
+
+        verify(routeMetrics).record(eq("orders"), eq("orders-service"), eq(404), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldRecordAServerErrorWhenTheProxiedCallFails() {
+        when(chain.filter(any())).thenReturn(Mono.error(new ConnectException("Connection refused")));
+
+        assertThatThrownBy(() -> new RouteMetricsFilter(routeMetrics).filter(exchange, chain).block())
+                .hasCauseInstanceOf(ConnectException.class);
+
+        verify(routeMetrics).record(eq("orders"), eq("orders-service"), eq(500), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldRecordTheStatusOfAResponseStatusError() {
+        when(chain.filter(any())).thenReturn(Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT)));
+
+        assertThatThrownBy(() -> new RouteMetricsFilter(routeMetrics).filter(exchange, chain).block())
+                .isInstanceOf(ResponseStatusException.class);
+
+        verify(routeMetrics).record(eq("orders"), eq("orders-service"), eq(504), anyLong(), anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,68 @@
+package ec.com.ecommerce.gateway.application.metrics;
+
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RouteMetricsTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    RouteMetrics routeMetrics;
+
+    @BeforeEach
+    void setUp() {
+        RouteSnapshotRepository routeSnapshotRepository = mock(RouteSnapshotRepository.class);
+        when(routeSnapshotRepository.changes()).thenReturn(Flux.never());
+        routeMetrics = new RouteMetrics(meterRegistry, routeSnapshotRepository, new double[]{0.5, 0.99}, false);
+        routeMetrics.start();
+    }
+
+    @Test
+    void shouldRecordLatencyStatusClassAndBytesPerRoute() {
+        routeMetrics.record("orders", "orders-service", 200, 100, 2048, millis(5));
+        routeMetrics.record("orders", "orders-service", 503, 0, 64, millis(7));
+
+        assertThat(meterRegistry.get(RouteMetrics.LATENCY).tag("route", "orders").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(RouteMetrics.RESPONSES).tags("route", "orders", "status", "5xx").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RouteMetrics.RESPONSE_BYTES).tag("service", "orders-service").summary().totalAmount())
+                .isEqualTo(2112);
+        assertThat(meterRegistry.get(RouteMetrics.REQUEST_BYTES).tag("route", "orders").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRankRoutesByTrafficLatencyAndErrors() {
+        for (int i = 0; i < 3; i++) {
+            routeMetrics.record("orders", "orders-service", 200, 0, 0, millis(1));
+        }
+        routeMetrics.record("users", "users-service", 500, 0, 0, millis(50));
+
+        assertThat(routeMetrics.top(RouteStats.Sort.REQUESTS, 10)).extracting(RouteStats::routeId).containsExactly("orders", "users");
+        assertThat(routeMetrics.top(RouteStats.Sort.LATENCY, 1)).extracting(RouteStats::routeId).containsExactly("users");
+        assertThat(routeMetrics.top(RouteStats.Sort.ERRORS, 1)).singleElement()
+                .satisfies(stats -> assertThat(stats.serverErrors()).isEqualTo(1));
+    }
+
+    @Test
+    void shouldRemoveMetersOfDeletedRoutes() {
+        routeMetrics.record("orders", "orders-service", 200, 0, 10, millis(1));
+
+        routeMetrics.remove("orders");
+
+        assertThat(meterRegistry.find(RouteMetrics.LATENCY).timers()).isEmpty();
+        assertThat(meterRegistry.find(RouteMetrics.RESPONSES).counters()).isEmpty();
+        assertThat(routeMetrics.top(RouteStats.Sort.REQUESTS, 10)).isEmpty();
+    }
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
@@ -0,0 +1,38 @@
+package ec.com.ecommerce.gateway.application.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.handler.AsyncPredicate;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexedRoutePredicateHandlerMappingTest {
+
+    private final PathRoutePredicateFactory pathFactory = new PathRoutePredicateFactory();
+
+    @Test
+    void shouldTakeThePatternsFromTheCompiledPathPredicates() {
+        Route route = Route.async()
+                .id("orders")
+                .uri("lb://orders")
+                .asyncPredicate(pathFactory.applyAsync(new PathRoutePredicateFactory.Config().setPatterns(List.of("/orders/**", "/v2/orders/**"))))
+                .and(AsyncPredicate.from(exchange -> true))
+                .build();
+
+        assertThat(IndexedRoutePredicateHandlerMapping.pathPatterns(route)).containsExactly("/orders/**", "/v2/orders/**");
+    }
+
+    @Test
+    void shouldLeaveRoutesWithoutAPathPredicateUnindexed() {
+        Route route = Route.async()
+                .id("host-only")
+                .uri("lb://orders")
+                .predicate(exchange -> true)
+                .build();
+
+        assertThat(IndexedRoutePredicateHandlerMapping.pathPatterns(route)).isEmpty();
+    }
+}
@@ -0,0 +1,66 @@
+package ec.com.ecommerce.gateway.application.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathRouteIndexTest {
+
+    private static final Map<String, List<String>> PATTERNS = Map.of(
+            "admin", List.of("/admin/**"),
+            "countries", List.of("/api/v1/countries/**"),
+            "country-by-id", List.of("/api/v1/countries/{id}"),
+            "users", List.of("/api/v1/users", "/api/v1/users/*/profile"),
+            "docs", List.of("/docs/{*path}"),
+            "host-only", List.of(),
+            "root", List.of("/"));
+
+    private final PathRouteIndex<String> index = PathRouteIndex.build(
+            List.of("admin", "country-by-id", "countries", "users", "docs", "host-only", "root"),
+            PATTERNS::get);
+
+    @Test
+    void shouldNarrowCandidatesByLiteralSegments() {
+        assertThat(index.candidates(List.of("admin", "routes")))
+                .containsExactly("admin", "host-only");
+    }
+
+    @Test
+    void shouldKeepRouteOrderAcrossWildcardAndPrefixMatches() {
+        assertThat(index.candidates(List.of("api", "v1", "countries", "42")))
+                .containsExactly("country-by-id", "countries", "host-only");
+    }
+
+    @Test
+    void shouldMatchMultiSegmentWildcardWithNoRemainingSegments() {
+        assertThat(index.candidates(List.of("api", "v1", "countries")))
+                .containsExactly("countries", "host-only");
+        assertThat(index.candidates(List.of("docs")))
+                .containsExactly("docs", "host-only");
+    }
+
+    @Test
+    void shouldIndexEveryPatternOfARoute() {
+        assertThat(index.candidates(List.of("api", "v1", "users"))).containsExactly("users", "host-only");
+        assertThat(index.candidates(List.of("api", "v1", "users", "7", "profile"))).containsExactly("users", "host-only");
+        assertThat(index.candidates(List.of("api", "v1", "users", "7"))).containsExactly("host-only");
+    }
+
+    @Test
+    void shouldMatchRootPattern() {
+        assertThat(index.candidates(List.of())).containsExactly("host-only", "root");
+    }
+
+    @Test
+    void shouldAlwaysReturnRoutesThatCannotBeIndexed() {
+        PathRouteIndex<String> withUnsupportedPattern = PathRouteIndex.build(
+                List.of("middle-wildcard", "relative"),
+                route -> route.equals("middle-wildcard") ? List.of("/a/**/b") : List.of("a/b"));
+
+        assertThat(withUnsupportedPattern.unindexedCount()).isEqualTo(2);
+        assertThat(withUnsupportedPattern.candidates(List.of("x"))).containsExactly("middle-wildcard", "relative");
+    }
+}
@@ -0,0 +1,193 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import ec.com.ecommerce.gateway.application.discovery.DocumentedServiceCatalog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OpenApiSpecAggregatorTest {
+
+    private static final String ORDERS_DOCS = """
+            {"openapi":"3.0.1","paths":{"/api/orders":{"get":{"responses":{"200":{"content":{"application/json":
+            {"schema":{"$ref":"#/components/schemas/Error"}}}}}}}},
+            "components":{"schemas":{"Error":{"type":"object"}}}}
+            """;
+
+    private static final String USERS_DOCS = """
+            {"openapi":"3.0.1","paths":{"/api/users":{"get":{"responses":{"200":{"content":{"application/json":
+            {"schema":{"$ref":"#/components/schemas/Error"}}}}}}}},
+            "components":{"schemas":{"Error":{"type":"string"}}}}
+            """;
+
+    private static final String SECURED_USERS_DOCS = """
+            {"openapi":"3.1.0","security":[{"bearerAuth":[]}],"tags":[{"name":"users"}],
+            "paths":{"/api/users":{"get":{"tags":["users"],"responses":{"200":{"description":"ok"}}}},
+            "/api/users/login":{"post":{"security":[{}],"responses":{"200":{"description":"ok"}}}},
+            "/api/users/admin":{"delete":{"security":[{"oauth":["admin"]}],"responses":{"204":{"description":"ok"}}}}},
+            "components":{"securitySchemes":{"bearerAuth":{"type":"http","scheme":"bearer"},
+            "oauth":{"type":"oauth2","flows":{}}}}}
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+
+    private HttpServer orders;
+    private HttpServer users;
+    private final AtomicInteger ordersFullResponses = new AtomicInteger();
+    private final AtomicReference<String> usersDocs = new AtomicReference<>(USERS_DOCS);
+    private final AtomicBoolean usersDown = new AtomicBoolean();
+
+    private OpenApiSpecAggregator aggregator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Supports conditional requests
+        orders = stubServer(exchange -> {
+            if ("\"orders-v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            ordersFullResponses.incrementAndGet();
+            exchange.getResponseHeaders().add("ETag", "\"orders-v1\"");
+            respond(exchange, ORDERS_DOCS);
+        });
+        // No ETags, always answers in full
+        users = stubServer(exchange -> {
+            if (usersDown.get()) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            respond(exchange, usersDocs.get());
+        });
+
+        when(discoveryClient.getServices()).thenReturn(List.of("orders-service", "users-service"));
+        when(discoveryClient.getInstances("orders-service")).thenReturn(List.of(
+                new DefaultServiceInstance("o1", "orders-service", "localhost", orders.getAddress().getPort(), false)));
+        when(discoveryClient.getInstances("users-service")).thenReturn(List.of(
+                new DefaultServiceInstance("u1", "users-service", "localhost", users.getAddress().getPort(), false)));
+
+        DocumentedServiceCatalog catalog = new DocumentedServiceCatalog(discoveryClient);
+        catalog.refresh();
+        aggregator = new OpenApiSpecAggregator(WebClient.builder(), discoveryClient, catalog, objectMapper,
+                "/v3/api-docs", Duration.ofMinutes(1), Duration.ofSeconds(2), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orders.stop(0);
+        users.stop(0);
+    }
+
+    @Test
+    void shouldMergeServiceDocumentsWithPrefixedComponents() throws IOException {
+        JsonNode merged = objectMapper.readTree(aggregator.revalidate().block().body());
+
+        assertThat(merged.path("paths").has("/api/orders")).isTrue();
+        assertThat(merged.path("paths").has("/api/users")).isTrue();
+        assertThat(merged.path("components").path("schemas").has("orders.Error")).isTrue();
+        assertThat(merged.path("components").path("schemas").has("users.Error")).isTrue();
+        assertThat(merged.at("/paths/~1api~1users/get/responses/200/content/application~1json/schema/$ref").asText())
+                .isEqualTo("#/components/schemas/users.Error");
+    }
+
+    @Test
+    void shouldRenameSecuritySchemesInTheRequirementsOfASecuredService() throws IOException {
+        usersDocs.set(SECURED_USERS_DOCS);
+
+        JsonNode merged = objectMapper.readTree(aggregator.revalidate().block().body());
+
+        assertThat(merged.path("components").path("securitySchemes").has("users.bearerAuth")).isTrue();
+        assertThat(merged.has("security")).isFalse();
+        // The root requirement applies to the service's own operations only
+        assertThat(merged.at("/paths/~1api~1users/get/security/0").has("users.bearerAuth")).isTrue();
+        assertThat(merged.at("/paths/~1api~1orders/get").has("security")).isFalse();
+        assertThat(merged.at("/paths/~1api~1users~1login/post/security/0").isEmpty()).isTrue();
+        assertThat(merged.at("/paths/~1api~1users~1admin/delete/security/0/users.oauth/0").asText()).isEqualTo("admin");
+        assertThat(merged.at("/tags/0/name").asText()).isEqualTo("users");
+        assertThat(merged.path("openapi").asText()).isEqualTo("3.1.0");
+    }
+
+    @Test
+    void shouldDeclareTheNewestOpenApiVersion() {
+        assertThat(OpenApiSpecAggregator.newerVersion("3.0.1", "3.1.0")).isEqualTo("3.1.0");
+        assertThat(OpenApiSpecAggregator.newerVersion("3.1.0", "3.0.3")).isEqualTo("3.1.0");
+        assertThat(OpenApiSpecAggregator.newerVersion("3.0.1", "")).isEqualTo("3.0.1");
+    }
+
+    @Test
+    void shouldRevalidateWithETagsAndKeepTheMergedETagWhenNothingChanged() {
+        OpenApiSpecAggregator.AggregatedSpec first = aggregator.revalidate().block();
+        OpenApiSpecAggregator.AggregatedSpec second = aggregator.revalidate().block();
+
+        assertThat(ordersFullResponses).hasValue(1);
+        assertThat(second.etag()).isEqualTo(first.etag());
+        assertThat(second.body()).isSameAs(first.body());
+    }
+
+    @Test
+    void shouldChangeTheMergedETagWhenAServiceDocumentChanged() {
+        OpenApiSpecAggregator.AggregatedSpec first = aggregator.revalidate().block();
+        usersDocs.set(USERS_DOCS.replace("/api/users", "/api/v2/users"));
+
+        OpenApiSpecAggregator.AggregatedSpec second = aggregator.revalidate().block();
+
+        assertThat(second.etag()).isNotEqualTo(first.etag());
+    }
+
+    @Test
+    void shouldKeepLastKnownDocumentOfAnUnreachableService() throws IOException {
+        aggregator.revalidate().block();
+        usersDown.set(true);
+
+        JsonNode merged = objectMapper.readTree(aggregator.revalidate().block().body());
+
+        assertThat(merged.path("paths").has("/api/users")).isTrue();
+    }
+
+    @Test
+    void shouldServeCachedSpecWithinMaxAge() {
+        OpenApiSpecAggregator.AggregatedSpec first = aggregator.aggregatedSpec().block();
+        OpenApiSpecAggregator.AggregatedSpec second = aggregator.aggregatedSpec().block();
+
+        assertThat(second).isSameAs(first);
+        assertThat(ordersFullResponses).hasValue(1);
+    }
+
+    private static HttpServer stubServer(com.sun.net.httpserver.HttpHandler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v3/api-docs", handler);
+        server.start();
+        return server;
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.com.ecommerce.gateway.application.event.RouteChangeMessage;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteRefreshBusTest {
+
+    @Mock
+    ReactiveStringRedisTemplate redis;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Redis stand-in for the publish script: the counter and the messages published on the channel
+     */
+    AtomicLong counter = new AtomicLong();
+    List<String> published = new ArrayList<>();
+
+    RouteRefreshBus bus;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(redis.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(this::runScript);
+        bus = new RouteRefreshBus(redis, objectMapper, true, "gateway-route-changes", "gateway-route-changes:version");
+    }
+
+    @Test
+    void shouldPublishChangesWithTheVersionTakenInTheSameScript() throws Exception {
+        bus.publishChanges(List.of(RouteEntity.builder().id("orders").uri("lb://orders").enabled(true).build()), List.of("users"));
+        bus.publishDelete("carts");
+
+        assertThat(published).hasSize(2);
+        RouteChangeMessage first = objectMapper.readValue(published.get(0), RouteChangeMessage.class);
+        assertThat(first.getVersion()).isEqualTo(1);
+        assertThat(first.getType()).isEqualTo(RouteChangeMessage.Type.CHANGE);
+        assertThat(first.getOriginNodeId()).isEqualTo(bus.getNodeId());
+        assertThat(first.getRoutes()).extracting(RouteEntity::getId).containsExactly("orders");
+        assertThat(first.getDeletedRouteIds()).containsExactly("users");
+
+        RouteChangeMessage second = objectMapper.readValue(published.get(1), RouteChangeMessage.class);
+        assertThat(second.getVersion()).isEqualTo(2);
+        assertThat(second.getRouteId()).isEqualTo("carts");
+    }
+
+    @Test
+    void shouldLeaveTheVersionToTheScript() {
+        bus.publishFullRefresh();
+
+        assertThat(published).singleElement().satisfies(message ->
+                assertThat(message).startsWith("{\"version\":1,").containsOnlyOnce("\"version\""));
+    }
+
+    @Test
+    void shouldPublishNothingWhenDisabled() {
+        RouteRefreshBus disabled = new RouteRefreshBus(redis, objectMapper, false, "gateway-route-changes", "gateway-route-changes:version");
+
+        disabled.publishFullRefresh();
+
+        verifyNoInteractions(redis);
+    }
+
+    private Flux<Long> runScript(InvocationOnMock invocation) {
+        List<String> keys = invocation.getArgument(1);
+        List<String> args = invocation.getArgument(2);
+        assertThat(keys).containsExactly("gateway-route-changes:version");
+        assertThat(args.get(0)).isEqualTo("gateway-route-changes");
+
+        long version = counter.incrementAndGet();
+        published.add("{\"version\":" + version + "," + args.get(1).substring(1));
+        return Flux.just(version);
+    }
+}
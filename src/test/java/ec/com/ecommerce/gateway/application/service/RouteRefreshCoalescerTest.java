@@ -0,0 +1,84 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteRefreshCoalescerTest {
+
+    @Mock
+    RouteService routeService;
+
+    Scheduler scheduler = Schedulers.newSingle("coalescer-test");
+
+    RouteRefreshCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        coalescer.stop();
+        scheduler.dispose();
+    }
+
+    @Test
+    void shouldApplyTheRoutesOfAFailedBatchOneByOne() {
+        RouteEntity orders = route("orders", "lb://orders");
+        RouteEntity broken = route("broken", null);
+        RouteEntity users = route("users", "lb://users");
+        when(routeService.saveRoutes(anyList())).thenThrow(new IllegalArgumentException("uri must not be null"));
+        when(routeService.saveRoute(any())).thenAnswer(invocation -> {
+            RouteEntity route = invocation.getArgument(0);
+            if (route.getUri() == null) {
+                throw new IllegalArgumentException("uri must not be null");
+            }
+            return route;
+        });
+        coalescer = coalescer(Duration.ofMillis(50));
+
+        coalescer.submitAll(List.of(orders, broken, users));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(coalescer.pending()).isZero());
+        verify(routeService).saveRoute(orders);
+        verify(routeService).saveRoute(broken);
+        verify(routeService).saveRoute(users);
+    }
+
+    @Test
+    void shouldFlushTheCurrentWindowOnShutdown() {
+        RouteEntity orders = route("orders", "lb://orders");
+        RouteEntity users = route("users", "lb://users");
+        coalescer = coalescer(Duration.ofHours(1));
+
+        coalescer.submitAll(List.of(orders, users));
+        coalescer.stop();
+
+        verify(routeService).saveRoutes(List.of(orders, users));
+        assertThat(coalescer.pending()).isZero();
+    }
+
+    private RouteRefreshCoalescer coalescer(Duration window) {
+        RouteRefreshCoalescer started = new RouteRefreshCoalescer(routeService, new SimpleMeterRegistry(), scheduler,
+                true, window, 200, Duration.ofSeconds(5));
+        started.start();
+        return started;
+    }
+
+    private static RouteEntity route(String id, String uri) {
+        return RouteEntity.builder().id(id).uri(uri).predicates("Path=/" + id + "/**").enabled(true).build();
+    }
+}
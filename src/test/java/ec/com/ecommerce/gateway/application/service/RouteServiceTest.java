@@ -0,0 +1,161 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteSnapshotRepository;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteServiceTest {
+
+    @Mock
+    RouteRepository routeRepository;
+
+    @Mock
+    RouteSnapshotRepository routeSnapshotRepository;
+
+    @Spy
+    RouteDefinitionConverter routeDefinitionConverter = new RouteDefinitionConverter();
+
+    @Mock
+    RouteRefreshBus routeRefreshBus;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    RouteService routeService;
+
+    @Test
+    void shouldSkipWriteAndRefreshForRepublishedRoute() {
+        RouteEntity stored = routeDefinitionConverter.prepareForWrite(route("orders", "Path=/orders/**"));
+        when(routeRepository.findById("orders")).thenReturn(Optional.of(stored));
+
+        RouteEntity result = routeService.saveRoute(route("orders", "Path=/orders/**"));
+
+        assertThat(result).isSameAs(stored);
+        verify(routeRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher, routeRefreshBus);
+        assertThat(meterRegistry.counter("gateway.routes.writes", "result", "skipped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSaveOnlyChangedRoutesOfABatch() {
+        RouteEntity stored = routeDefinitionConverter.prepareForWrite(route("orders", "Path=/orders/**"));
+        RouteEntity unchanged = route("orders", "Path=/orders/**");
+        RouteEntity changed = route("users", "Path=/v2/users/**");
+        when(routeRepository.findByIdIn(List.of("orders", "users"))).thenReturn(List.of(hashView(stored)));
+        when(routeRepository.saveAll(anyCollection())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+
+        List<RouteEntity> written = routeService.saveRoutes(List.of(unchanged, changed));
+
+        assertThat(written).containsExactly(changed);
+        assertThat(changed.getContentHash()).isEqualTo(routeDefinitionConverter.rowHash(changed));
+        assertThat(meterRegistry.counter("gateway.routes.writes", "result", "applied").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("gateway.routes.writes", "result", "skipped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotRefreshWhenWholeBatchIsUnchanged() {
+        RouteEntity stored = routeDefinitionConverter.prepareForWrite(route("orders", "Path=/orders/**"));
+        when(routeRepository.findByIdIn(List.of("orders"))).thenReturn(List.of(hashView(stored)));
+
+        assertThat(routeService.saveRoutes(List.of(route("orders", "Path=/orders/**")))).isEmpty();
+
+        verify(routeRepository, never()).saveAll(anyCollection());
+        verifyNoInteractions(eventPublisher, routeRefreshBus, routeSnapshotRepository);
+    }
+
+    @Test
+    void shouldRefreshSavedRoutesOnlyAfterCommit() {
+        when(routeRepository.saveAll(anyCollection())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            routeService.saveRoutes(List.of(route("orders", "Path=/orders/**"), route("users", "Path=/users/**")));
+
+            verifyNoInteractions(eventPublisher, routeRefreshBus, routeSnapshotRepository);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(routeSnapshotRepository).invalidate();
+        verify(eventPublisher).publishEvent(any(RefreshRoutesEvent.class));
+        verify(routeRefreshBus).publishFullRefresh();
+    }
+
+    @Test
+    void shouldPublishRouteChangesOnlyAfterCommit() {
+        RouteEntity orders = route("orders", "Path=/orders/**");
+        when(routeRepository.saveAll(anyCollection())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            routeService.applyRouteChanges(List.of(orders), List.of("legacy"));
+
+            verify(routeRepository).deleteAllById(List.of("legacy"));
+            verifyNoInteractions(eventPublisher, routeRefreshBus, routeSnapshotRepository);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(routeSnapshotRepository).writeThrough(List.of(orders), List.of("legacy"));
+        verify(routeRefreshBus).publishFullRefresh();
+    }
+
+    @Test
+    void shouldWriteEveryChangeThroughWhenTheSnapshotCannotBeUpdated() {
+        RouteEntity orders = route("orders", "Path=/orders/**");
+        RouteEntity users = route("users", "Path=/users/**");
+        when(routeRepository.saveAll(anyCollection())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+
+        routeService.applyRouteChanges(List.of(orders, users), List.of("carts", "legacy"));
+
+        verify(routeSnapshotRepository).writeThrough(List.of(orders, users), List.of("carts", "legacy"));
+        verify(routeSnapshotRepository).invalidate();
+        verify(routeRefreshBus).publishFullRefresh();
+    }
+
+    private static RouteEntity route(String id, String predicates) {
+        return RouteEntity.builder().id(id).uri("lb://" + id).predicates(predicates).enabled(true).build();
+    }
+
+    private static RouteRepository.ContentHashView hashView(RouteEntity route) {
+        return new RouteRepository.ContentHashView() {
+            @Override
+            public String getId() {
+                return route.getId();
+            }
+
+            @Override
+            public String getContentHash() {
+                return route.getContentHash();
+            }
+        };
+    }
+}
@@ -0,0 +1,203 @@
+package ec.com.ecommerce.gateway.application.service;
+
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.application.discovery.DocumentedServiceCatalog;
+import ec.com.ecommerce.gateway.application.event.RouteEventPublisher;
+import ec.com.ecommerce.gateway.application.leader.LeaderElection;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.support.NameUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SwaggerAggregatorServiceTest {
+
+    @Mock
+    RouteRepository routeRepository;
+
+    @Mock
+    RouteEventPublisher routeEventPublisher;
+
+    @Mock
+    RouteService routeService;
+
+    @Mock
+    LeaderElection leaderElection;
+
+    @Mock
+    DocumentedServiceCatalog documentedServiceCatalog;
+
+    @Spy
+    RouteDefinitionConverter routeDefinitionConverter = new RouteDefinitionConverter();
+
+    @InjectMocks
+    SwaggerAggregatorService swaggerAggregatorService;
+
+    @Captor
+    ArgumentCaptor<Collection<RouteEntity>> routesCaptor;
+
+    @Captor
+    ArgumentCaptor<Collection<String>> deletedCaptor;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(leaderElection.currentToken()).thenReturn(OptionalLong.of(7));
+        lenient().when(leaderElection.holdsLease(7)).thenReturn(true);
+    }
+
+    @Test
+    void shouldWriteAggregatorAndTemplatedDocsRoutesInOneBatch() {
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+
+        verify(routeService).applyRouteChanges(routesCaptor.capture(), deletedCaptor.capture());
+        assertThat(routesCaptor.getValue()).extracting(RouteEntity::getId).containsExactly(
+                "gateway-swagger-aggregator", "swagger-docs-template", "swagger-direct-template");
+        assertThat(routesCaptor.getValue()).extracting(RouteEntity::getPredicates)
+                .contains("Path=/docs/{service}/**", "Path=/{service}/swagger-ui/**");
+        assertThat(deletedCaptor.getValue()).isEmpty();
+        verify(routeService, never()).saveRoute(any());
+    }
+
+    @Test
+    void shouldPropagateFailuresSoTheCatalogChangeIsRetried() {
+        doThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"))
+                .when(routeService).applyRouteChanges(anyCollection(), anyCollection());
+
+        assertThatThrownBy(() -> swaggerAggregatorService.generateAggregatedSwaggerRoutes())
+                .isInstanceOf(CannotCreateTransactionException.class);
+    }
+
+    @Test
+    void shouldNotWriteOrRefreshWhenStoredRoutesAreUpToDate() {
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+        verify(routeService).applyRouteChanges(routesCaptor.capture(), anyCollection());
+        List<RouteEntity> stored = new ArrayList<>(routesCaptor.getValue());
+        when(routeRepository.findAllById(anyCollection())).thenReturn(stored);
+
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+
+        verifyNoMoreInteractions(routeService);
+    }
+
+    @Test
+    void shouldBindTheDiscoveredServiceVariableByPosition() {
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+
+        verify(routeService).applyRouteChanges(routesCaptor.capture(), anyCollection());
+        assertThat(routesCaptor.getValue())
+                .filteredOn(route -> route.getId().equals("swagger-docs-template"))
+                .singleElement()
+                .satisfies(route -> assertThat(route.getFilterDefinitions())
+                        .filteredOn(filter -> filter.getName().equals("DiscoveredService"))
+                        .singleElement()
+                        .satisfies(filter -> assertThat(filter.getArgs()).containsExactly(entry(NameUtils.generateName(0), "service"))));
+    }
+
+    @Test
+    void shouldRewriteRoutesStoredWithOutdatedDefinitions() {
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+        verify(routeService).applyRouteChanges(routesCaptor.capture(), anyCollection());
+        List<RouteEntity> stored = new ArrayList<>(routesCaptor.getValue());
+        FilterDefinition unbound = new FilterDefinition();
+        unbound.setName("DiscoveredService");
+        unbound.addArg("_value", "service");
+        stored.get(1).setFilterDefinitions(List.of(unbound));
+        clearInvocations(routeService);
+        when(routeRepository.findAllById(anyCollection())).thenReturn(stored);
+
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+
+        verify(routeService).applyRouteChanges(routesCaptor.capture(), anyCollection());
+        assertThat(routesCaptor.getValue()).extracting(RouteEntity::getId).containsExactly("swagger-docs-template");
+    }
+
+    @Test
+    void shouldDeleteLegacyPerServiceRoutesOnly() {
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+        verify(routeService).applyRouteChanges(routesCaptor.capture(), anyCollection());
+        List<RouteEntity> stored = new ArrayList<>(routesCaptor.getValue());
+        clearInvocations(routeService);
+
+        when(routeRepository.findAllById(anyCollection())).thenReturn(stored);
+        when(routeRepository.findByIdStartingWithOrIdStartingWith("swagger-", "direct-swagger-")).thenReturn(List.of(
+                stored.get(1),
+                RouteEntity.builder().id("swagger-users-ui").build(),
+                RouteEntity.builder().id("swagger-users-api-docs").build(),
+                RouteEntity.builder().id("direct-swagger-users").build(),
+                RouteEntity.builder().id("swagger-users-1234").build()));
+
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+
+        verify(routeService).applyRouteChanges(routesCaptor.capture(), deletedCaptor.capture());
+        assertThat(routesCaptor.getValue()).isEmpty();
+        assertThat(deletedCaptor.getValue())
+                .containsExactly("swagger-users-ui", "swagger-users-api-docs", "direct-swagger-users");
+    }
+
+    @Test
+    void shouldKeepAdministratorDisabledRoutesDisabled() {
+        RouteEntity disabled = RouteEntity.builder()
+                .id("swagger-docs-template")
+                .uri("no://op")
+                .predicates("Path=/docs/old/**")
+                .enabled(false)
+                .build();
+        when(routeRepository.findAllById(anyCollection())).thenReturn(List.of(disabled));
+
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+
+        verify(routeService).applyRouteChanges(routesCaptor.capture(), anyCollection());
+        assertThat(routesCaptor.getValue())
+                .filteredOn(route -> route.getId().equals("swagger-docs-template"))
+                .singleElement()
+                .satisfies(route -> assertThat(route.getEnabled()).isFalse());
+    }
+
+    @Test
+    void shouldListDocumentedServicesFromTheCatalog() {
+        when(documentedServiceCatalog.docsNames()).thenReturn(List.of("orders", "users"));
+
+        assertThat(swaggerAggregatorService.getServicesWithSwagger()).containsExactly("orders", "users");
+        verifyNoInteractions(routeRepository);
+    }
+
+    @Test
+    void shouldSkipGenerationWhenNotTheLeader() {
+        when(leaderElection.currentToken()).thenReturn(OptionalLong.empty());
+
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+
+        verifyNoInteractions(routeRepository, routeService);
+    }
+
+    @Test
+    void shouldDiscardChangesWhenTheLeaseWasLostDuringReconciliation() {
+        when(leaderElection.holdsLease(7)).thenReturn(false);
+
+        swaggerAggregatorService.generateAggregatedSwaggerRoutes();
+
+        verifyNoInteractions(routeService);
+    }
+}
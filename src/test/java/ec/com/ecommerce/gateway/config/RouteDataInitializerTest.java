@@ -0,0 +1,49 @@
+package ec.com.ecommerce.gateway.config;
+
+import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.application.service.RouteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteDataInitializerTest {
+
+    @Mock
+    RouteRepository routeRepository;
+
+    @Mock
+    RouteService routeService;
+
+    RouteDataInitializer initializer;
+
+    @AfterEach
+    void tearDown() {
+        initializer.stop();
+    }
+
+    @Test
+    void shouldInitializeRoutesOnceTheDatabaseIsReachable() {
+        when(routeRepository.count())
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                        new SQLTransientConnectionException("Connection is not available, request timed out")))
+                .thenReturn(0L);
+        initializer = new RouteDataInitializer(routeRepository, routeService, Schedulers.immediate());
+
+        initializer.start();
+
+        verifyNoInteractions(routeService);
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> verify(routeService).saveRoutes(anyList()));
+        verify(routeRepository, never()).save(any());
+    }
+}
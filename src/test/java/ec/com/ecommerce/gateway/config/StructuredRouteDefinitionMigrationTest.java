@@ -0,0 +1,84 @@
+package ec.com.ecommerce.gateway.config;
+
+import ec.com.ecommerce.gateway.adapter.persistence.RouteDefinitionConverter;
+import ec.com.ecommerce.gateway.adapter.persistence.RouteRepository;
+import ec.com.ecommerce.gateway.application.service.RouteService;
+import ec.com.ecommerce.gateway.domain.entity.RouteEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StructuredRouteDefinitionMigrationTest {
+
+    @Mock
+    RouteRepository routeRepository;
+
+    @Mock
+    RouteService routeService;
+
+    StructuredRouteDefinitionMigration migration;
+
+    @AfterEach
+    void tearDown() {
+        migration.stop();
+    }
+
+    @Test
+    void shouldNotHoldUpStartupWhileTheDatabaseIsUnreachable() {
+        RouteEntity legacy = RouteEntity.builder().id("orders").uri("lb://orders").predicates("Path=/orders/**").enabled(true).build();
+        when(routeRepository.findByPredicateDefinitionsIsNullOrFilterDefinitionsIsNull())
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                        new SQLTransientConnectionException("Connection is not available, request timed out")))
+                .thenReturn(List.of(legacy));
+        migration = new StructuredRouteDefinitionMigration(routeRepository, routeService, new RouteDefinitionConverter(),
+                Schedulers.immediate());
+
+        migration.start();
+
+        verifyNoInteractions(routeService);
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> verify(routeService).saveRoutes(List.of(legacy)));
+        verify(routeRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void shouldMigrateTheReadableRoutesAndSkipMalformedOnes() {
+        RouteEntity legacy = RouteEntity.builder().id("orders").uri("lb://orders").predicates("Path=/orders/**").enabled(true).build();
+        RouteEntity malformed = RouteEntity.builder().id("broken").uri("lb://broken").predicates("[{\"name\":]").enabled(true).build();
+        when(routeRepository.findByPredicateDefinitionsIsNullOrFilterDefinitionsIsNull()).thenReturn(List.of(legacy, malformed));
+        migration = new StructuredRouteDefinitionMigration(routeRepository, routeService, new RouteDefinitionConverter(),
+                Schedulers.immediate());
+
+        migration.start();
+
+        verify(routeService).saveRoutes(List.of(legacy));
+        verify(routeRepository).findByPredicateDefinitionsIsNullOrFilterDefinitionsIsNull();
+    }
+
+    @Test
+    void shouldNotRetryFailuresOtherThanTheRouteStore() {
+        RouteEntity legacy = RouteEntity.builder().id("orders").uri("lb://orders").predicates("Path=/orders/**").enabled(true).build();
+        when(routeRepository.findByPredicateDefinitionsIsNullOrFilterDefinitionsIsNull()).thenReturn(List.of(legacy));
+        when(routeService.saveRoutes(anyList())).thenThrow(new IllegalStateException("not a store failure"));
+        migration = new StructuredRouteDefinitionMigration(routeRepository, routeService, new RouteDefinitionConverter(),
+                Schedulers.immediate());
+
+        migration.start();
+
+        // Longer than the first retry backoff
+        await().during(Duration.ofMillis(1500)).atMost(Duration.ofSeconds(3))
+                .untilAsserted(() -> verify(routeService, times(1)).saveRoutes(anyList()));
+    }
+}